@@ -23,10 +23,27 @@ api.interceptors.request.use(
 )
 
 // 응답 인터셉터 - 에러 처리
+// 액세스 토큰이 만료되어 401이면 리프레시 토큰으로 한 번 갱신한 뒤 원래 요청을 다시 보낸다
+let refreshing = null
+
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
-    if (error.response?.status === 401) {
+  async (error) => {
+    const original = error.config
+    const url = original?.url || ''
+    if (error.response?.status === 401 && original && !original._retry
+        && !url.startsWith('/auth/refresh') && !url.startsWith('/auth/login')) {
+      original._retry = true
+      try {
+        // 동시에 여러 요청이 401을 받아도 갱신은 한 번만
+        refreshing = refreshing || api.post('/auth/refresh').finally(() => { refreshing = null })
+        await refreshing
+        return api(original)
+      } catch {
+        // 갱신 실패 - 아래에서 로그인 페이지로
+      }
+    }
+    if (error.response?.status === 401 && !url.startsWith('/auth/refresh')) {
       window.location.href = '/login'
     }
     return Promise.reject(error)
@@ -0,0 +1,48 @@
+package com.gugarden.security;
+
+import com.gugarden.config.ExpiryWheel;
+import com.gugarden.service.InMemoryTokenBlacklistService;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * 요청 한 건의 JWT 인증 비용 (doFilterInternal).
+ * cached=true는 검증 캐시에 있는 토큰(서명 검증 없이 조회만), false는 캐시 크기 0으로 매번 파싱/서명 검증하는 경우다.
+ */
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-benchmark-secret-key-0123456789";
+    private static final long EXPIRATION = 3_600_000L;
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private ExpiryWheel expiryWheel;
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private final FilterChain chain = (req, res) -> SecurityContextHolder.clearContext();
+
+    @Setup
+    public void setUp() {
+        expiryWheel = new ExpiryWheel(1000, 64);
+        JwtTokenProvider provider = new JwtTokenProvider(SECRET, EXPIRATION, cached ? 10_000 : 0, expiryWheel);
+        filter = new JwtAuthenticationFilter(provider, new InMemoryTokenBlacklistService(expiryWheel, EXPIRATION));
+
+        request = new MockHttpServletRequest("GET", "/api/orders");
+        request.addHeader("Authorization", "Bearer " + provider.generateToken(1, "bench@test.com", "user"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        expiryWheel.shutdown();
+    }
+
+    @Benchmark
+    public void doFilterInternal() throws Exception {
+        filter.doFilterInternal(request, new MockHttpServletResponse(), chain);
+    }
+}
@@ -0,0 +1,29 @@
+package com.gugarden.service;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * 주문번호 발급 비용. 단일 스레드와 여러 스레드가 같은 생성기에서 동시에 발급하는 경우(CAS 경합)를 비교한다.
+ * DB 조회(init)는 하지 않고 노드 0으로 발급만 측정한다.
+ */
+@State(Scope.Benchmark)
+public class OrderNumberGeneratorBenchmark {
+
+    private OrderNumberGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new OrderNumberGenerator(null);
+    }
+
+    @Benchmark
+    public String next() {
+        return generator.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextContended() {
+        return generator.next();
+    }
+}
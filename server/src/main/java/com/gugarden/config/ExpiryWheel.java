@@ -0,0 +1,176 @@
+package com.gugarden.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 메모리 저장소 항목 만료용 계층형 타이밍 휠.
+ * 등록한 작업(보통 맵에서 해당 항목 제거)을 만료 시각이 된 뒤 첫 틱에 실행한다.
+ * 맵 전체를 주기적으로 훑지 않고, 틱마다 그 시각에 해당하는 칸만 처리하므로 항목당 상수 시간이다.
+ *
+ * 단계 i의 칸 하나는 tick-ms × wheel-size^i 밀리초를 맡고, 먼 만료는 위 단계에 두었다가 시각이 가까워지면 아래 단계로 내린다.
+ * 등록은 큐에 넣기만 하고(잠금 없음), 휠 구조는 틱 스레드 하나만 다룬다.
+ */
+@Slf4j
+@Component
+public class ExpiryWheel {
+
+    private record Timer(long deadline, Runnable action) {}
+
+    private final long tickMs;
+    private final int wheelSize;
+
+    private final ConcurrentLinkedQueue<Timer> incoming = new ConcurrentLinkedQueue<>();
+    // 틱 스레드 전용
+    private final List<ArrayDeque<Timer>[]> levels = new ArrayList<>();
+    private long currentTime;
+
+    private final ScheduledExecutorService ticker;
+
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong pending = new AtomicLong();
+
+    public ExpiryWheel(@Value("${app.expiry-wheel.tick-ms:1000}") long tickMs,
+                       @Value("${app.expiry-wheel.wheel-size:64}") int wheelSize) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTime = System.currentTimeMillis() / tickMs * tickMs;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "expiry-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::advance, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * deadline(epoch millis)이 지나면 action을 실행한다. 늦어도 한 틱 안에 실행되고, 미리 실행되지는 않는다.
+     * action은 틱 스레드에서 실행되므로 맵 항목 제거처럼 짧아야 한다.
+     */
+    public void schedule(long deadline, Runnable action) {
+        incoming.add(new Timer(deadline, action));
+        scheduled.increment();
+        pending.incrementAndGet();
+    }
+
+    private void advance() {
+        try {
+            long now = System.currentTimeMillis();
+            drainIncoming();
+            while (currentTime + tickMs <= now) {
+                currentTime += tickMs;
+                // 위 단계에서 이번 시각에 해당하는 칸을 아래 단계로 내린 뒤 0단계 칸을 실행
+                for (int i = Math.min(levels.size(), depth(currentTime)) - 1; i >= 0; i--) {
+                    ArrayDeque<Timer> bucket = levels.get(i)[index(currentTime, i)];
+                    for (Timer timer = bucket.poll(); timer != null; timer = bucket.poll()) {
+                        add(timer);
+                    }
+                }
+                drainIncoming();
+            }
+        } catch (Throwable e) {
+            log.error("만료 휠 처리 실패", e);
+        }
+    }
+
+    // currentTime에서 칸 경계가 맞는 단계 수 (0단계는 항상)
+    private int depth(long time) {
+        int depth = 0;
+        long levelTick = tickMs;
+        while (time % levelTick == 0 && depth < 64) {
+            depth++;
+            if (levelTick > Long.MAX_VALUE / wheelSize) {
+                break;
+            }
+            levelTick *= wheelSize;
+        }
+        return depth;
+    }
+
+    private void drainIncoming() {
+        for (Timer timer = incoming.poll(); timer != null; timer = incoming.poll()) {
+            add(timer);
+        }
+    }
+
+    private void add(Timer timer) {
+        // 한 틱 올려 잡아 만료 시각 전에 실행되지 않게
+        long due = timer.deadline() + tickMs - 1;
+        if (due < currentTime + tickMs) {
+            expire(timer);
+            return;
+        }
+        long levelTick = tickMs;
+        for (int level = 0; ; level++) {
+            long levelStart = currentTime - currentTime % levelTick;
+            if (due < levelStart + levelTick * wheelSize || levelTick > Long.MAX_VALUE / wheelSize / 2) {
+                bucketsAt(level)[(int) ((due / levelTick) % wheelSize)].add(timer);
+                return;
+            }
+            levelTick *= wheelSize;
+        }
+    }
+
+    private int index(long time, int level) {
+        long levelTick = tickMs;
+        for (int i = 0; i < level; i++) {
+            levelTick *= wheelSize;
+        }
+        return (int) ((time / levelTick) % wheelSize);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArrayDeque<Timer>[] bucketsAt(int level) {
+        while (levels.size() <= level) {
+            ArrayDeque<Timer>[] buckets = new ArrayDeque[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayDeque<>();
+            }
+            levels.add(buckets);
+        }
+        return levels.get(level);
+    }
+
+    private void expire(Timer timer) {
+        pending.decrementAndGet();
+        try {
+            timer.action().run();
+            expired.increment();
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("만료 작업 실패", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending.get());
+        stats.put("scheduled", scheduled.sum());
+        stats.put("expired", expired.sum());
+        stats.put("failures", failures.sum());
+        stats.put("levels", levels.size());
+        stats.put("tickMs", tickMs);
+        return stats;
+    }
+}
@@ -0,0 +1,68 @@
+package com.gugarden.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * 외부 API(토스페이먼츠, 네이버 로그인) 호출용 공용 RestTemplate.
+ * 연결을 풀에서 재사용(keep-alive)하고, 연결/응답 시간 제한을 두며, OutboundHttpGuard로 호스트별 호출을 보호한다.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${app.http-client.connect-timeout-ms:3000}")
+    private long connectTimeoutMs;
+
+    @Value("${app.http-client.read-timeout-ms:15000}")
+    private long readTimeoutMs;
+
+    @Value("${app.http-client.max-per-host:20}")
+    private int maxPerHost;
+
+    @Value("${app.http-client.max-total:50}")
+    private int maxTotal;
+
+    @Value("${app.http-client.idle-evict-ms:30000}")
+    private long idleEvictMs;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient outboundHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerHost)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictMs))
+                .evictExpiredConnections()
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    @Bean
+    public RestTemplate outboundRestTemplate(CloseableHttpClient outboundHttpClient, OutboundHttpGuard outboundHttpGuard) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(outboundHttpClient));
+        restTemplate.getInterceptors().add(outboundHttpGuard);
+        return restTemplate;
+    }
+}
@@ -0,0 +1,166 @@
+package com.gugarden.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 외부 API 호출 보호 (호스트별).
+ * - 동시 호출 수 제한: 한도를 넘으면 잠시 기다렸다가 그래도 자리가 없으면 바로 거절
+ * - 서킷 브레이커: 연결 오류/5xx가 연속으로 나면 일정 시간 호출하지 않고 거절, 이후 한 건만 시험 호출
+ * - 호출 수/실패/거절/지연 시간 집계
+ * 거절된 호출은 상대 서버에 전송되지 않았으므로 호출하는 쪽에서 "처리되지 않음"으로 다룰 수 있다.
+ */
+@Slf4j
+@Component
+public class OutboundHttpGuard implements ClientHttpRequestInterceptor {
+
+    /** 서킷이 열려 있거나 동시 호출 한도를 넘어 요청을 보내지 않은 경우 */
+    public static class RejectedException extends RestClientException {
+        public RejectedException(String message) {
+            super(message);
+        }
+    }
+
+    @Value("${app.http-client.max-per-host:20}")
+    private int maxPerHost;
+
+    @Value("${app.http-client.acquire-timeout-ms:1000}")
+    private long acquireTimeoutMs;
+
+    @Value("${app.http-client.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${app.http-client.circuit.open-ms:30000}")
+    private long openMs;
+
+    private final ConcurrentHashMap<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    private class HostState {
+        final Semaphore permits = new Semaphore(maxPerHost);
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+        final AtomicBoolean trialInFlight = new AtomicBoolean();
+        volatile long openUntil;
+
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder shortCircuited = new LongAdder();
+        final LongAdder totalMillis = new LongAdder();
+        final AtomicLong maxMillis = new AtomicLong();
+
+        // 닫힘이면 통과, 열림이면 거절, 열림 시간이 지났으면 한 건만 시험 호출로 통과
+        boolean allowRequest() {
+            long until = openUntil;
+            if (until == 0) {
+                return true;
+            }
+            if (System.currentTimeMillis() < until) {
+                return false;
+            }
+            return trialInFlight.compareAndSet(false, true);
+        }
+
+        void onSuccess() {
+            consecutiveFailures.set(0);
+            openUntil = 0;
+            trialInFlight.set(false);
+        }
+
+        void onFailure(String host) {
+            failures.increment();
+            if (trialInFlight.compareAndSet(true, false) || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                if (openUntil == 0) {
+                    log.warn("외부 API 서킷 열림: {} ({}ms 동안 호출 차단)", host, openMs);
+                }
+                openUntil = System.currentTimeMillis() + openMs;
+            }
+        }
+
+        String circuit() {
+            long until = openUntil;
+            return until == 0 ? "closed" : System.currentTimeMillis() < until ? "open" : "half_open";
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String host = request.getURI().getHost() + ":" + request.getURI().getPort();
+        HostState state = hosts.computeIfAbsent(host, h -> new HostState());
+
+        if (!state.allowRequest()) {
+            state.shortCircuited.increment();
+            throw new RejectedException(host + " 호출 차단 (서킷 열림)");
+        }
+        if (!acquire(state)) {
+            state.rejected.increment();
+            state.trialInFlight.set(false);
+            throw new RejectedException(host + " 동시 호출 한도 초과");
+        }
+
+        long start = System.nanoTime();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            if (response.getStatusCode().is5xxServerError()) {
+                state.onFailure(host);
+            } else {
+                state.onSuccess();
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            state.onFailure(host);
+            throw e;
+        } finally {
+            state.permits.release();
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            state.calls.increment();
+            state.totalMillis.add(elapsed);
+            state.maxMillis.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    private boolean acquire(HostState state) {
+        try {
+            return state.permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        hosts.forEach((host, s) -> {
+            long calls = s.calls.sum();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("circuit", s.circuit());
+            m.put("calls", calls);
+            m.put("failures", s.failures.sum());
+            m.put("rejected", s.rejected.sum());
+            m.put("shortCircuited", s.shortCircuited.sum());
+            m.put("inFlight", maxPerHost - s.permits.availablePermits());
+            m.put("avgMillis", calls == 0 ? 0 : s.totalMillis.sum() / calls);
+            m.put("maxMillis", s.maxMillis.get());
+            stats.put(host, m);
+        });
+        return stats;
+    }
+}
@@ -2,12 +2,16 @@ package com.gugarden.controller;
 
 import com.gugarden.dto.request.RoleRequest;
 import com.gugarden.dto.request.StatusRequest;
+import com.gugarden.dto.request.StockShardRequest;
 import com.gugarden.security.UserPrincipal;
 import com.gugarden.service.AdminService;
+import com.gugarden.service.InventoryService;
+import com.gugarden.service.SalesRollupService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -15,6 +19,7 @@ import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +30,8 @@ import java.util.Map;
 public class AdminController {
 
     private final AdminService adminService;
+    private final SalesRollupService salesRollupService;
+    private final InventoryService inventoryService;
 
     // ==================== Dashboard ====================
 
@@ -34,6 +41,33 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getDashboard());
     }
 
+    // ==================== Metrics ====================
+
+    @Operation(summary = "내부 지표 조회", description = "상품 목록 캐시 적중/미스/제거 횟수 등을 조회합니다.")
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        return ResponseEntity.ok(adminService.getMetrics());
+    }
+
+    // ==================== Analytics ====================
+
+    @Operation(summary = "매출 시계열 조회", description = "시간/일/월 단위 매출·판매수량을 조회합니다. 기본값은 최근 30일 일별입니다.")
+    @GetMapping("/analytics/sales")
+    public ResponseEntity<Map<String, Object>> getSalesSeries(
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer productId,
+            @RequestParam(required = false) Integer categoryId) {
+        return ResponseEntity.ok(salesRollupService.getSalesSeries(granularity, from, to, productId, categoryId));
+    }
+
+    @Operation(summary = "매출 집계 재생성", description = "주문 상품 전체로 매출 집계를 다시 만듭니다.")
+    @PostMapping("/analytics/sales/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSalesRollups() {
+        return ResponseEntity.ok(salesRollupService.rebuild());
+    }
+
     // ==================== Orders ====================
 
     @Operation(summary = "주문 목록 조회 (페이지네이션)")
@@ -113,6 +147,14 @@ public class AdminController {
         return ResponseEntity.ok(adminService.deleteProduct(id));
     }
 
+    @Operation(summary = "재고 샤드 설정", description = "인기 상품의 재고를 여러 행에 나눠 동시 주문 경합을 줄입니다. 0이면 해제합니다.")
+    @PutMapping("/products/{id}/stock-shards")
+    public ResponseEntity<Map<String, Object>> configureStockShards(
+            @Parameter(description = "상품 ID") @PathVariable Integer id,
+            @Valid @RequestBody StockShardRequest request) {
+        return ResponseEntity.ok(inventoryService.configureShards(id, request.getShards()));
+    }
+
     // ==================== Product Images ====================
 
     @Operation(summary = "상품 이미지 목록 조회")
@@ -7,6 +7,7 @@ import com.gugarden.security.CookieUtil;
 import com.gugarden.security.JwtTokenProvider;
 import com.gugarden.security.UserPrincipal;
 import com.gugarden.service.AuthService;
+import com.gugarden.service.RefreshTokenService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +15,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
@@ -34,6 +36,8 @@ public class AuthController {
     private final JwtTokenProvider jwtTokenProvider;
     private final CookieUtil cookieUtil;
     private final AuthCodeStore authCodeStore;
+    private final RefreshTokenService refreshTokenService;
+    private final RestTemplate outboundRestTemplate;
 
     @Value("${app.client-url}")
     private String clientUrl;
@@ -49,29 +53,27 @@ public class AuthController {
 
     @Operation(summary = "회원가입")
     @PostMapping("/register")
-    public ResponseEntity<Map<String, Object>> register(@Valid @RequestBody RegisterRequest request) {
-        Map<String, Object> result = authService.register(request);
+    public ResponseEntity<Map<String, Object>> register(@Valid @RequestBody RegisterRequest request,
+                                                        HttpServletRequest httpRequest) {
+        Map<String, Object> result = authService.register(request, httpRequest.getRemoteAddr());
 
-        String token = (String) result.get("token");
-        ResponseCookie cookie = cookieUtil.createAuthCookie(token, 604800);
-        result.remove("token");
+        String[] cookies = tokenCookies((String) result.remove("token"), (String) result.remove("refreshToken"));
 
         return ResponseEntity.status(HttpStatus.CREATED)
-                .header(HttpHeaders.SET_COOKIE, cookie.toString())
+                .header(HttpHeaders.SET_COOKIE, cookies)
                 .body(result);
     }
 
-    @Operation(summary = "로그인")
+    @Operation(summary = "로그인", description = "IP/계정별 요청 수를 넘거나 해싱 대기열이 가득 차면 429 (Retry-After).")
     @PostMapping("/login")
-    public ResponseEntity<Map<String, Object>> login(@Valid @RequestBody LoginRequest request) {
-        Map<String, Object> result = authService.login(request);
+    public ResponseEntity<Map<String, Object>> login(@Valid @RequestBody LoginRequest request,
+                                                     HttpServletRequest httpRequest) {
+        Map<String, Object> result = authService.login(request, httpRequest.getRemoteAddr());
 
-        String token = (String) result.get("token");
-        ResponseCookie cookie = cookieUtil.createAuthCookie(token, 604800);
-        result.remove("token");
+        String[] cookies = tokenCookies((String) result.remove("token"), (String) result.remove("refreshToken"));
 
         return ResponseEntity.ok()
-                .header(HttpHeaders.SET_COOKIE, cookie.toString())
+                .header(HttpHeaders.SET_COOKIE, cookies)
                 .body(result);
     }
 
@@ -93,15 +95,14 @@ public class AuthController {
     @PutMapping("/password")
     public ResponseEntity<Map<String, String>> changePassword(
             @AuthenticationPrincipal UserPrincipal principal,
-            @Valid @RequestBody ChangePasswordRequest request) {
-        Map<String, String> result = authService.changePassword(principal.getId(), request);
+            @Valid @RequestBody ChangePasswordRequest request,
+            HttpServletRequest httpRequest) {
+        Map<String, String> result = authService.changePassword(principal.getId(), request, httpRequest.getRemoteAddr());
 
-        String newToken = result.get("token");
-        ResponseCookie cookie = cookieUtil.createAuthCookie(newToken, 604800);
-        result.remove("token");
+        String[] cookies = tokenCookies(result.remove("token"), result.remove("refreshToken"));
 
         return ResponseEntity.ok()
-                .header(HttpHeaders.SET_COOKIE, cookie.toString())
+                .header(HttpHeaders.SET_COOKIE, cookies)
                 .body(result);
     }
 
@@ -109,19 +110,32 @@ public class AuthController {
     @DeleteMapping("/me")
     public ResponseEntity<Map<String, String>> deleteAccount(@AuthenticationPrincipal UserPrincipal principal) {
         Map<String, String> result = authService.deleteAccount(principal.getId());
-        ResponseCookie clearCookie = cookieUtil.createClearCookie();
 
         return ResponseEntity.ok()
-                .header(HttpHeaders.SET_COOKIE, clearCookie.toString())
+                .header(HttpHeaders.SET_COOKIE, clearCookies())
+                .body(result);
+    }
+
+    @Operation(summary = "토큰 갱신", description = "refresh_token 쿠키로 액세스 토큰을 다시 발급합니다. 리프레시 토큰도 새 토큰으로 교체됩니다.")
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, String>> refresh(
+            @CookieValue(value = CookieUtil.REFRESH_COOKIE, required = false) String refreshToken) {
+        Map<String, String> result = authService.refresh(refreshToken);
+
+        String[] cookies = tokenCookies(result.remove("token"), result.remove("refreshToken"));
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, cookies)
                 .body(result);
     }
 
     @Operation(summary = "로그아웃")
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, String>> logout() {
-        ResponseCookie clearCookie = cookieUtil.createClearCookie();
+    public ResponseEntity<Map<String, String>> logout(
+            @CookieValue(value = CookieUtil.REFRESH_COOKIE, required = false) String refreshToken) {
+        authService.logout(refreshToken);
         return ResponseEntity.ok()
-                .header(HttpHeaders.SET_COOKIE, clearCookie.toString())
+                .header(HttpHeaders.SET_COOKIE, clearCookies())
                 .body(Map.of("message", "로그아웃되었습니다."));
     }
 
@@ -139,9 +153,8 @@ public class AuthController {
                     .body(Map.of("error", (Object) "유효하지 않거나 만료된 코드입니다."));
         }
 
-        ResponseCookie cookie = cookieUtil.createAuthCookie(jwt, 604800);
-
         Integer userId = jwtTokenProvider.getUserId(jwt);
+        String[] cookies = tokenCookies(jwt, refreshTokenService.issue(userId));
         Map<String, Object> meResult = authService.getMe(userId);
 
         Map<String, Object> result = new HashMap<>();
@@ -149,10 +162,26 @@ public class AuthController {
         result.put("user", meResult.get("user"));
 
         return ResponseEntity.ok()
-                .header(HttpHeaders.SET_COOKIE, cookie.toString())
+                .header(HttpHeaders.SET_COOKIE, cookies)
                 .body(result);
     }
 
+    // 액세스 토큰 쿠키도 리프레시 토큰 기간만큼 유지 — 만료된 토큰이 전송되어야 401을 받고 갱신할 수 있다
+    private String[] tokenCookies(String token, String refreshToken) {
+        long maxAge = refreshTokenService.getRefreshExpiration() / 1000;
+        return new String[]{
+                cookieUtil.createAuthCookie(token, maxAge).toString(),
+                cookieUtil.createRefreshCookie(refreshToken, maxAge).toString()
+        };
+    }
+
+    private String[] clearCookies() {
+        return new String[]{
+                cookieUtil.createClearCookie().toString(),
+                cookieUtil.createClearRefreshCookie().toString()
+        };
+    }
+
     // --- 네이버 OAuth ---
 
     @Operation(summary = "네이버 로그인", description = "네이버 OAuth 로그인 페이지로 리다이렉트합니다.")
@@ -181,8 +210,6 @@ public class AuthController {
         }
 
         try {
-            RestTemplate restTemplate = new RestTemplate();
-
             // 1. 액세스 토큰 요청
             String tokenUrl = "https://nid.naver.com/oauth2.0/token"
                     + "?grant_type=authorization_code"
@@ -192,7 +219,7 @@ public class AuthController {
                     + "&state=" + state;
 
             @SuppressWarnings("unchecked")
-            Map<String, Object> tokenResponse = restTemplate.getForObject(tokenUrl, Map.class);
+            Map<String, Object> tokenResponse = outboundRestTemplate.getForObject(tokenUrl, Map.class);
             String accessToken = (String) tokenResponse.get("access_token");
 
             if (accessToken == null) {
@@ -208,7 +235,7 @@ public class AuthController {
             HttpEntity<Void> entity = new HttpEntity<>(headers);
 
             @SuppressWarnings("unchecked")
-            ResponseEntity<Map> profileResponse = restTemplate.exchange(
+            ResponseEntity<Map> profileResponse = outboundRestTemplate.exchange(
                     "https://openapi.naver.com/v1/nid/me",
                     HttpMethod.GET, entity, Map.class);
 
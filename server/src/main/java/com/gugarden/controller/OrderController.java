@@ -2,6 +2,7 @@ package com.gugarden.controller;
 
 import com.gugarden.dto.request.OrderRequest;
 import com.gugarden.security.UserPrincipal;
+import com.gugarden.service.IdempotencyService;
 import com.gugarden.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -22,6 +23,7 @@ import java.util.Map;
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
 
     @Operation(summary = "주문 목록 조회")
     @GetMapping
@@ -37,12 +39,15 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrderDetail(id, principal.getId()));
     }
 
-    @Operation(summary = "주문 생성", description = "장바구니 상품으로 주문을 생성합니다. 5만원 이상 무료배송.")
+    @Operation(summary = "주문 생성", description = "장바구니 상품으로 주문을 생성합니다. 5만원 이상 무료배송. " +
+            "Idempotency-Key 헤더를 보내면 같은 키로 재시도할 때 처음 응답을 그대로 돌려줍니다.")
     @PostMapping
     public ResponseEntity<Map<String, Object>> createOrder(
             @AuthenticationPrincipal UserPrincipal principal,
+            @Parameter(description = "재시도 중복 방지 키") @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody OrderRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(orderService.createOrder(principal.getId(), request));
+        return idempotencyService.executeInTransaction(principal.getId(), idempotencyKey, "POST /api/orders", request,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(orderService.createOrder(principal.getId(), request)));
     }
 
     @Operation(summary = "주문 취소", description = "pending 또는 paid 상태의 주문만 취소 가능합니다.")
@@ -2,10 +2,14 @@ package com.gugarden.controller;
 
 import com.gugarden.dto.request.PaymentRequest;
 import com.gugarden.security.UserPrincipal;
+import com.gugarden.service.IdempotencyService;
 import com.gugarden.service.PaymentService;
+import com.gugarden.service.PaymentWebhookService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import jakarta.validation.Valid;
@@ -20,6 +24,8 @@ import java.util.Map;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
+    private final PaymentWebhookService paymentWebhookService;
 
     @Operation(summary = "네이버페이 결제 예약")
     @PostMapping("/prepare")
@@ -61,12 +67,14 @@ public class PaymentController {
         return ResponseEntity.ok(paymentService.prepareToss(request.getOrderId(), principal.getId(), principal.getEmail()));
     }
 
-    @Operation(summary = "토스페이먼츠 결제 승인")
+    @Operation(summary = "토스페이먼츠 결제 승인", description = "Idempotency-Key 헤더를 보내면 같은 키로 재시도할 때 토스 API를 다시 호출하지 않고 처음 응답을 돌려줍니다.")
     @PostMapping("/toss/confirm")
     public ResponseEntity<Map<String, Object>> confirmToss(
             @AuthenticationPrincipal UserPrincipal principal,
+            @Parameter(description = "재시도 중복 방지 키") @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody PaymentRequest request) {
-        return ResponseEntity.ok(paymentService.confirmToss(request.getOrderId(), request.getPaymentKey(), request.getAmount(), principal.getId()));
+        return idempotencyService.execute(principal.getId(), idempotencyKey, "POST /api/payments/toss/confirm:" + request.getOrderId(), request,
+                () -> ResponseEntity.ok(paymentService.confirmToss(request.getOrderId(), request.getPaymentKey(), request.getAmount(), principal.getId())));
     }
 
     @Operation(summary = "토스페이먼츠 결제 취소")
@@ -76,4 +84,16 @@ public class PaymentController {
             @Valid @RequestBody PaymentRequest request) {
         return ResponseEntity.ok(paymentService.cancelToss(request.getOrderId(), request.getCancelReason(), principal.getId()));
     }
+
+    @Operation(summary = "결제사 웹훅 수신", description = "toss, naverpay. X-Webhook-Signature 헤더(본문의 HMAC-SHA256 hex)로 인증하고, " +
+            "큐에 넣은 뒤 바로 200을 응답합니다. 큐가 가득 차면 503 (결제사 재전송).")
+    @PostMapping("/webhook/{provider}")
+    public ResponseEntity<Void> receiveWebhook(
+            @Parameter(description = "결제사 (toss, naverpay)") @PathVariable String provider,
+            @RequestHeader(value = PaymentWebhookService.SIGNATURE_HEADER, required = false) String signature,
+            @RequestBody String body) {
+        return paymentWebhookService.receive(provider, body, signature)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
 }
@@ -1,13 +1,20 @@
 package com.gugarden.controller;
 
+import com.gugarden.service.CatalogCacheService;
+import com.gugarden.service.ProductDetailCacheService;
 import com.gugarden.service.ProductService;
+import com.gugarden.service.ProductSuggestService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -20,35 +27,75 @@ import java.util.Map;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductSuggestService productSuggestService;
 
-    @Operation(summary = "상품 목록 조회", description = "활성화된 전체 상품 목록을 조회합니다.")
+    @Operation(summary = "상품 목록 조회",
+            description = "활성화된 전체 상품 목록을 조회합니다. after 또는 limit을 지정하면 커서 기반으로 페이지 단위 조회합니다.")
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllActiveProducts());
+    public ResponseEntity<?> getAllProducts(
+            @Parameter(description = "다음 페이지 커서 (createdAt,id)") @RequestParam(required = false) String after,
+            @Parameter(description = "페이지 크기 (최대 100)") @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        if (after != null || limit != null) {
+            return ResponseEntity.ok(productService.getActiveProductsPage(null, after, limit));
+        }
+        return snapshotResponse(productService.getAllActiveProducts(), request);
     }
 
-    @Operation(summary = "카테고리별 상품 조회")
+    @Operation(summary = "카테고리별 상품 조회", description = "after 또는 limit을 지정하면 커서 기반으로 페이지 단위 조회합니다.")
     @GetMapping("/category/{slug}")
-    public ResponseEntity<Map<String, Object>> getByCategory(@Parameter(description = "카테고리 slug") @PathVariable String slug) {
-        return ResponseEntity.ok(productService.getProductsByCategory(slug));
+    public ResponseEntity<?> getByCategory(
+            @Parameter(description = "카테고리 slug") @PathVariable String slug,
+            @Parameter(description = "다음 페이지 커서 (createdAt,id)") @RequestParam(required = false) String after,
+            @Parameter(description = "페이지 크기 (최대 100)") @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        if (after != null || limit != null) {
+            return ResponseEntity.ok(productService.getActiveProductsPage(slug, after, limit));
+        }
+        return snapshotResponse(productService.getProductsByCategory(slug), request);
     }
 
     @Operation(summary = "추천 상품 조회", description = "is_featured=true인 상품을 최대 8개 조회합니다.")
     @GetMapping("/featured")
-    public ResponseEntity<Map<String, Object>> getFeatured() {
-        return ResponseEntity.ok(productService.getFeaturedProducts());
+    public ResponseEntity<byte[]> getFeatured(WebRequest request) {
+        return snapshotResponse(productService.getFeaturedProducts(), request);
     }
 
     @Operation(summary = "렌탈 가능 상품 조회")
     @GetMapping("/rentable")
-    public ResponseEntity<Map<String, Object>> getRentable() {
-        return ResponseEntity.ok(productService.getRentableProducts());
+    public ResponseEntity<byte[]> getRentable(WebRequest request) {
+        return snapshotResponse(productService.getRentableProducts(), request);
     }
 
-    @Operation(summary = "상품 상세 조회")
+    @Operation(summary = "상품 검색", description = "상품명/설명을 검색해 관련도 순으로 반환합니다. 상품명은 초성으로도 검색할 수 있습니다.")
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> search(
+            @Parameter(description = "검색어") @RequestParam(required = false) String q,
+            @Parameter(description = "최대 결과 수 (최대 100)") @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productService.searchProducts(q, limit));
+    }
+
+    @Operation(summary = "검색어 자동완성", description = "입력한 접두어로 시작하는 카테고리/상품 이름을 반환합니다. 초성 및 입력 중인 글자도 일치합니다.")
+    @GetMapping("/suggest")
+    public ResponseEntity<Map<String, Object>> suggest(
+            @Parameter(description = "입력 중인 검색어") @RequestParam(required = false) String q,
+            @Parameter(description = "최대 결과 수 (최대 20)") @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(productSuggestService.suggest(q, limit));
+    }
+
+    @Operation(summary = "상품 상세 조회", description = "If-None-Match가 현재 ETag와 일치하면 상품을 조회하지 않고 304를 반환합니다.")
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getDetail(@Parameter(description = "상품 ID") @PathVariable Integer id) {
-        return ResponseEntity.ok(productService.getProductDetail(id));
+    public ResponseEntity<Map<String, Object>> getDetail(@Parameter(description = "상품 ID") @PathVariable Integer id,
+                                                         WebRequest request) {
+        String etag = productService.getProductDetailEtag(id);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        ProductDetailCacheService.Detail detail = productService.getProductDetail(id);
+        return ResponseEntity.ok()
+                .eTag(detail.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(detail.body());
     }
 
     @Operation(summary = "상품 생성", description = "관리자 전용")
@@ -103,4 +150,89 @@ public class ProductController {
     public ResponseEntity<Map<String, String>> deleteImage(@Parameter(description = "이미지 ID") @PathVariable Integer imageId) {
         return ResponseEntity.ok(productService.deleteProductImage(imageId));
     }
+
+    // 미리 직렬화된 목록 응답 전송. If-None-Match/If-Modified-Since가 일치하면 본문 없이 304를 반환한다.
+    // gzip 본문은 바이트가 다르므로 ETag에 -gz를 붙이고, If-None-Match는 두 형태 모두 같은 목록으로 인정한다.
+    private ResponseEntity<byte[]> snapshotResponse(CatalogCacheService.Snapshot snapshot, WebRequest request) {
+        boolean gzip = snapshot.gzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? gzipEtag(snapshot.etag()) : snapshot.etag();
+
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), snapshot.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(snapshot.lastModified())
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .lastModified(snapshot.lastModified())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return builder.body(snapshot.json());
+    }
+
+    private static String gzipEtag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    // 약한 비교 — W/ 접두사와 -gz 접미사를 떼고 비교
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals(gzipEtag(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Accept-Encoding에서 gzip(없으면 *)의 q 값이 0보다 큰지 — "gzip;q=0"은 거부
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            double q = 1.0;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = q;
+            } else if (coding.equals("*")) {
+                any = q;
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return any != null && any > 0;
+    }
 }
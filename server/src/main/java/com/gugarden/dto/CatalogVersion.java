@@ -0,0 +1,10 @@
+package com.gugarden.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 상품 목록/상세의 변경 여부를 판단하기 위한 요약 정보 (건수, 최대 ID, 최종 수정 시각).
+ * 상품을 로드하지 않고 집계 쿼리 한 번으로 구할 수 있다.
+ */
+public record CatalogVersion(long count, Integer maxId, LocalDateTime lastUpdatedAt) {
+}
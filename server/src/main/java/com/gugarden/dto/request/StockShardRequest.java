@@ -0,0 +1,15 @@
+package com.gugarden.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter @Setter
+public class StockShardRequest {
+    @NotNull(message = "샤드 수를 입력해주세요.")
+    @Min(value = 0, message = "샤드 수는 0~64 사이여야 합니다.")
+    @Max(value = 64, message = "샤드 수는 0~64 사이여야 합니다.")
+    private Integer shards;
+}
@@ -0,0 +1,27 @@
+package com.gugarden.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "auth_codes", indexes = {
+    @Index(name = "idx_auth_codes_expires", columnList = "expires_at")
+})
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuthCode {
+
+    @Id
+    @Column(length = 36)
+    private String code;
+
+    @Column(nullable = false, length = 1000)
+    private String jwt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
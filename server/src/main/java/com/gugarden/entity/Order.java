@@ -67,6 +67,10 @@ public class Order {
     @Column(name = "paid_at")
     private LocalDateTime paidAt;
 
+    // 결제 대기(pending) 주문의 재고 홀드 만료 시각 — 지나면 스케줄러가 취소하고 재고를 되돌린다
+    @Column(name = "hold_expires_at")
+    private LocalDateTime holdExpiresAt;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -80,6 +84,11 @@ public class Order {
     private List<OrderItem> items = new ArrayList<>();
 
     public enum OrderStatus {
-        pending, paid, preparing, shipped, delivered, cancelled
+        pending, paid, preparing, shipped, delivered, cancelled;
+
+        // 매출 집계 대상 (결제 완료 이후, 취소 제외)
+        public boolean countsAsRevenue() {
+            return this == paid || this == preparing || this == shipped || this == delivered;
+        }
     }
 }
@@ -0,0 +1,61 @@
+package com.gugarden.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * PG 승인/취소 요청 기록. 외부 호출 전에 requested로 저장하고, 결과를 받은 뒤 succeeded/failed로 바꾼다.
+ * requested로 남은 행은 결과를 모르는 요청이라 복구 작업이 PG에 결과를 조회해 마무리한다.
+ */
+@Entity
+@Table(name = "payment_transactions")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentTransaction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Integer orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    @Builder.Default
+    private Status status = Status.requested;
+
+    @Column(name = "payment_key", length = 200)
+    private String paymentKey;
+
+    private Integer amount;
+
+    @Column(name = "cancel_reason")
+    private String cancelReason;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Type {
+        confirm, cancel
+    }
+
+    public enum Status {
+        requested, succeeded, failed
+    }
+}
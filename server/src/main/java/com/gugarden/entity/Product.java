@@ -43,6 +43,11 @@ public class Product {
     @Builder.Default
     private Integer stock = 0;
 
+    // 0이면 stock 컬럼에서 직접 차감, 1 이상이면 product_stock_shards에 나눠 담고 stock은 표시용 합계
+    @Column(name = "stock_shards", nullable = false)
+    @Builder.Default
+    private Integer stockShards = 0;
+
     @Column(length = 500)
     private String thumbnail;
 
@@ -67,6 +72,7 @@ public class Product {
     private LocalDateTime updatedAt;
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("sortOrder ASC, id ASC")
     @Builder.Default
     private List<ProductImage> images = new ArrayList<>();
 }
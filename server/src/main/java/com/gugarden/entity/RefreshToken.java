@@ -0,0 +1,45 @@
+package com.gugarden.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+    @Index(name = "idx_refresh_tokens_user", columnList = "user_id"),
+    @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+    @Index(name = "idx_refresh_tokens_expires", columnList = "expires_at")
+})
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    // 토큰 원문은 저장하지 않고 SHA-256만 보관
+    @Column(name = "token_hash", nullable = false, unique = true, columnDefinition = "BINARY(32)")
+    private byte[] tokenHash;
+
+    // 한 번의 로그인에서 회전으로 이어진 토큰 묶음 — 재사용이 감지되면 묶음 전체를 폐기
+    @Column(name = "family_id", nullable = false)
+    private Long familyId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // 회전되어 더 이상 쓸 수 없으면 회전 시각
+    @Column(name = "used_at")
+    private LocalDateTime usedAt;
+
+    // 회전으로 발급한 새 토큰의 해시 — 유예 시간 안의 동시 갱신인지 판단할 때 사용
+    @Column(name = "replaced_by", columnDefinition = "BINARY(32)")
+    private byte[] replacedBy;
+}
@@ -0,0 +1,23 @@
+package com.gugarden.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "token_revocations", indexes = {
+    @Index(name = "idx_token_revocations_revoked", columnList = "revoked_at")
+})
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TokenRevocation {
+
+    @Id
+    @Column(name = "user_id")
+    private Integer userId;
+
+    // 무효화 시각 (epoch millis) — 이전에 발급된 액세스 토큰은 거부
+    @Column(name = "revoked_at", nullable = false)
+    private Long revokedAt;
+}
@@ -0,0 +1,28 @@
+package com.gugarden.event;
+
+import com.gugarden.entity.Order;
+
+import java.time.LocalDateTime;
+
+/**
+ * 주문 생성/상태 변경 알림. 트랜잭션 커밋 이후 대시보드 집계 갱신에 사용된다.
+ *
+ * @param orderId     주문 ID
+ * @param totalAmount 주문 금액 (배송비 포함)
+ * @param createdAt   주문 생성 시각
+ * @param from        변경 전 상태, 신규 주문이면 null
+ * @param to          변경 후 상태
+ */
+public record OrderStatusChangedEvent(Integer orderId, int totalAmount, LocalDateTime createdAt,
+                                      Order.OrderStatus from, Order.OrderStatus to) {
+
+    public static OrderStatusChangedEvent created(Order order) {
+        return new OrderStatusChangedEvent(order.getId(), order.getTotalAmount(), order.getCreatedAt(),
+                null, order.getStatus());
+    }
+
+    public static OrderStatusChangedEvent changed(Order order, Order.OrderStatus from) {
+        return new OrderStatusChangedEvent(order.getId(), order.getTotalAmount(), order.getCreatedAt(),
+                from, order.getStatus());
+    }
+}
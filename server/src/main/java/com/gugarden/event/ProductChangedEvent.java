@@ -0,0 +1,39 @@
+package com.gugarden.event;
+
+import com.gugarden.entity.Product;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 상품 데이터 변경 알림. 트랜잭션 커밋 이후 캐시/인덱스 갱신에 사용된다.
+ *
+ * @param type       변경 종류
+ * @param productIds 변경된 상품 ID
+ * @param categoryId 등록/수정된 상품의 (변경 후) 카테고리 ID, 그 외에는 null
+ */
+public record ProductChangedEvent(Type type, Set<Integer> productIds, Integer categoryId) {
+
+    public enum Type {
+        SAVED,    // 등록 또는 수정
+        DELETED,  // 삭제
+        STOCK,    // 재고 변경 (주문/취소)
+        IMAGES    // 상세 이미지 추가/삭제
+    }
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(Type.SAVED, Set.of(product.getId()), product.getCategory().getId());
+    }
+
+    public static ProductChangedEvent deleted(Integer productId) {
+        return new ProductChangedEvent(Type.DELETED, Set.of(productId), null);
+    }
+
+    public static ProductChangedEvent stockChanged(Collection<Integer> productIds) {
+        return new ProductChangedEvent(Type.STOCK, Set.copyOf(productIds), null);
+    }
+
+    public static ProductChangedEvent imagesChanged(Integer productId) {
+        return new ProductChangedEvent(Type.IMAGES, Set.of(productId), null);
+    }
+}
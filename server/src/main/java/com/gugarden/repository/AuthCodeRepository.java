@@ -0,0 +1,21 @@
+package com.gugarden.repository;
+
+import com.gugarden.entity.AuthCode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface AuthCodeRepository extends JpaRepository<AuthCode, String> {
+
+    // 삭제한 서버만 코드를 교환할 수 있다 (여러 서버가 동시에 같은 코드를 받아도 한 번만)
+    @Modifying
+    @Query("DELETE FROM AuthCode c WHERE c.code = :code")
+    int deleteByCode(@Param("code") String code);
+
+    @Modifying
+    @Query("DELETE FROM AuthCode c WHERE c.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
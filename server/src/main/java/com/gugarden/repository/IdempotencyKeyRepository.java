@@ -0,0 +1,27 @@
+package com.gugarden.repository;
+
+import com.gugarden.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+    Optional<IdempotencyKey> findByUserIdAndIdemKey(Integer userId, String idemKey);
+
+    // 임대 시간이 지난 처리 중 키를 새 임대로 넘겨받는다 (조건부 UPDATE라 한 요청만 1을 받는다)
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.leaseUntil = :leaseUntil " +
+           "WHERE k.id = :id AND k.responseStatus IS NULL AND k.leaseUntil < :now")
+    int takeOver(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
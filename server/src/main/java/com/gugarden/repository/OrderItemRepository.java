@@ -1,18 +1,44 @@
 package com.gugarden.repository;
 
+import com.gugarden.entity.Order;
 import com.gugarden.entity.OrderItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
+public interface OrderItemRepository extends JpaRepository<OrderItem, Integer>, OrderItemRepositoryCustom {
 
     @Query("SELECT oi FROM OrderItem oi LEFT JOIN FETCH oi.product WHERE oi.order.id = :orderId")
     List<OrderItem> findByOrderIdWithProduct(@Param("orderId") Integer orderId);
 
-    long countByOrderId(Integer orderId);
+    @Query("SELECT oi.order.id, COUNT(oi) FROM OrderItem oi WHERE oi.order.id IN :orderIds GROUP BY oi.order.id")
+    List<Object[]> countGroupByOrderId(@Param("orderIds") Collection<Integer> orderIds);
+
+    // 주문 목록 한 페이지의 주문별 상품 수를 쿼리 한 번으로 조회
+    default Map<Integer, Long> countByOrderIds(Collection<Integer> orderIds) {
+        Map<Integer, Long> counts = new HashMap<>();
+        if (orderIds.isEmpty()) {
+            return counts;
+        }
+        for (Object[] row : countGroupByOrderId(orderIds)) {
+            counts.put((Integer) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
 
     boolean existsByProductId(Integer productId);
+
+    // 매출 집계 재생성용: id 기준 keyset 페이지 (id, 주문 생성 시각, 상품 ID, 카테고리 ID, 단가, 수량)
+    @Query("SELECT oi.id, o.createdAt, p.id, p.category.id, oi.productPrice, oi.quantity " +
+           "FROM OrderItem oi JOIN oi.order o JOIN oi.product p " +
+           "WHERE oi.id > :afterId AND o.status IN :statuses ORDER BY oi.id")
+    List<Object[]> findSalesRowsAfter(@Param("afterId") Integer afterId,
+                                      @Param("statuses") Collection<Order.OrderStatus> statuses,
+                                      Pageable pageable);
 }
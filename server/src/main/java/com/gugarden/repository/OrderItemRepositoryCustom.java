@@ -0,0 +1,13 @@
+package com.gugarden.repository;
+
+import com.gugarden.entity.OrderItem;
+
+import java.util.List;
+
+public interface OrderItemRepositoryCustom {
+
+    /**
+     * 주문 상품을 INSERT 한 번으로 저장한다. 저장된 행은 영속성 컨텍스트에 올라가지 않으며 id도 채워지지 않는다.
+     */
+    void insertAll(List<OrderItem> items);
+}
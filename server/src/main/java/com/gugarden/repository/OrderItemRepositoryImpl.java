@@ -0,0 +1,38 @@
+package com.gugarden.repository;
+
+import com.gugarden.entity.OrderItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.List;
+
+public class OrderItemRepositoryImpl implements OrderItemRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // IDENTITY 키라 Hibernate 배치가 동작하지 않으므로 다중 행 VALUES로 한 번에 저장
+    @Override
+    public void insertAll(List<OrderItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO order_items (order_id, product_id, product_name, product_price, quantity, created_at) VALUES ");
+        for (int i = 0; i < items.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, CURRENT_TIMESTAMP)");
+        }
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        int position = 1;
+        for (OrderItem item : items) {
+            query.setParameter(position++, item.getOrder().getId());
+            query.setParameter(position++, item.getProduct().getId());
+            query.setParameter(position++, item.getProductName());
+            query.setParameter(position++, item.getProductPrice());
+            query.setParameter(position++, item.getQuantity());
+        }
+        query.executeUpdate();
+    }
+}
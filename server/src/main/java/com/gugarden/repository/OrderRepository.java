@@ -1,22 +1,67 @@
 package com.gugarden.repository;
 
 import com.gugarden.entity.Order;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Integer> {
 
+    record UserOrderStats(long orderCount, long totalSpent) {
+        public static final UserOrderStats EMPTY = new UserOrderStats(0, 0);
+    }
+
     @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC")
     List<Order> findByUserIdOrderByCreatedAtDesc(@Param("userId") Integer userId);
 
     Optional<Order> findByIdAndUserId(Integer id, Integer userId);
 
+    // 결제 승인/홀드 만료 처리가 같은 주문을 동시에 바꾸지 않도록 행 잠금
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id AND o.user.id = :userId")
+    Optional<Order> findByIdAndUserIdForUpdate(@Param("id") Integer id, @Param("userId") Integer userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Integer id);
+
+    // 주문번호 생성기 재시작 시 이 노드가 마지막으로 발급한 번호부터 이어가기 위한 조회
+    @Query("SELECT MAX(o.orderNumber) FROM Order o WHERE o.orderNumber LIKE :pattern")
+    Optional<String> findMaxOrderNumberLike(@Param("pattern") String pattern);
+
+    // 결제사 웹훅 일괄 반영 — 교착을 피하려고 id 순으로 잠금
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderNumber IN :orderNumbers ORDER BY o.id")
+    List<Order> findByOrderNumberInForUpdate(@Param("orderNumbers") Collection<String> orderNumbers);
+
+    // 홀드 만료 대상 (id, hold_expires_at) — idx_orders_status_hold(status, hold_expires_at, id) 순서대로
+    // (hold_expires_at, id) keyset 페이지를 읽으므로 정렬 없이 인덱스 범위 스캔으로 끝난다
+    @Query("SELECT o.id, o.holdExpiresAt FROM Order o WHERE o.status = :status AND o.holdExpiresAt < :now " +
+           "ORDER BY o.holdExpiresAt, o.id")
+    List<Object[]> findExpiredHoldsFirstPage(@Param("status") Order.OrderStatus status,
+                                             @Param("now") LocalDateTime now,
+                                             Pageable pageable);
+
+    @Query("SELECT o.id, o.holdExpiresAt FROM Order o WHERE o.status = :status AND o.holdExpiresAt < :now AND " +
+           "(o.holdExpiresAt > :afterExpiresAt OR (o.holdExpiresAt = :afterExpiresAt AND o.id > :afterId)) " +
+           "ORDER BY o.holdExpiresAt, o.id")
+    List<Object[]> findExpiredHoldsAfter(@Param("status") Order.OrderStatus status,
+                                         @Param("now") LocalDateTime now,
+                                         @Param("afterExpiresAt") LocalDateTime afterExpiresAt,
+                                         @Param("afterId") Integer afterId,
+                                         Pageable pageable);
+
     // Admin queries
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.user WHERE (:status IS NULL OR o.status = :status) ORDER BY o.createdAt DESC")
     Page<Order> findAllForAdmin(@Param("status") Order.OrderStatus status, Pageable pageable);
@@ -31,21 +76,48 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     @Query(value = "SELECT COUNT(*) FROM orders WHERE status = 'pending'", nativeQuery = true)
     long countPending();
 
-    @Query(value = "SELECT COUNT(*) FROM orders WHERE DATE(created_at) = CURDATE() AND status != 'cancelled'", nativeQuery = true)
-    long countTodayOrders();
+    // created_at 범위 조건으로 인덱스 사용 (대시보드 집계 보정용)
+    @Query(value = "SELECT COUNT(*) FROM orders WHERE created_at >= :since AND status != 'cancelled'", nativeQuery = true)
+    long countOrdersSince(@Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT COALESCE(SUM(total_amount), 0) FROM orders WHERE created_at >= :since AND status IN ('paid','preparing','shipped','delivered')", nativeQuery = true)
+    long sumRevenueSince(@Param("since") LocalDateTime since);
+
+    // 대시보드 재집계와 같은 트랜잭션에서 읽는 주문 상태 — 재집계 중 들어온 이벤트가 집계에 이미 포함됐는지 판단
+    @Query("SELECT o.id, o.status FROM Order o WHERE o.id IN :ids")
+    List<Object[]> findStatusRowsByIdIn(@Param("ids") Collection<Integer> ids);
 
-    @Query(value = "SELECT COALESCE(SUM(total_amount), 0) FROM orders WHERE DATE(created_at) = CURDATE() AND status IN ('paid','preparing','shipped','delivered')", nativeQuery = true)
-    long sumTodayRevenue();
+    default Map<Integer, Order.OrderStatus> findStatusByIdIn(Collection<Integer> ids) {
+        Map<Integer, Order.OrderStatus> result = new HashMap<>();
+        if (ids.isEmpty()) {
+            return result;
+        }
+        for (Object[] row : findStatusRowsByIdIn(ids)) {
+            result.put((Integer) row[0], (Order.OrderStatus) row[1]);
+        }
+        return result;
+    }
 
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.user ORDER BY o.createdAt DESC")
     List<Order> findTop5RecentOrders(Pageable pageable);
 
-    // User order count
-    @Query("SELECT COUNT(o) FROM Order o WHERE o.user.id = :userId")
-    long countByUserId(@Param("userId") Integer userId);
+    // User order count / total spent (취소 제외) — 회원 목록 한 페이지를 쿼리 한 번으로
+    @Query("SELECT o.user.id, COUNT(o), SUM(CASE WHEN o.status <> :excluded THEN o.totalAmount ELSE 0 END) " +
+           "FROM Order o WHERE o.user.id IN :userIds GROUP BY o.user.id")
+    List<Object[]> aggregateByUserIds(@Param("userIds") Collection<Integer> userIds,
+                                      @Param("excluded") Order.OrderStatus excluded);
 
-    @Query(value = "SELECT COALESCE(SUM(total_amount), 0) FROM orders WHERE user_id = :userId AND status != 'cancelled'", nativeQuery = true)
-    long sumTotalSpentByUserId(@Param("userId") Integer userId);
+    default Map<Integer, UserOrderStats> findOrderStatsByUserIds(Collection<Integer> userIds) {
+        Map<Integer, UserOrderStats> stats = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return stats;
+        }
+        for (Object[] row : aggregateByUserIds(userIds, Order.OrderStatus.cancelled)) {
+            long totalSpent = row[2] == null ? 0 : ((Number) row[2]).longValue();
+            stats.put((Integer) row[0], new UserOrderStats(((Number) row[1]).longValue(), totalSpent));
+        }
+        return stats;
+    }
 
     @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC")
     List<Order> findRecentByUserId(@Param("userId") Integer userId, Pageable pageable);
@@ -0,0 +1,18 @@
+package com.gugarden.repository;
+
+import com.gugarden.entity.PaymentTransaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PaymentTransactionRepository extends JpaRepository<PaymentTransaction, Long> {
+
+    boolean existsByOrderIdAndStatus(Integer orderId, PaymentTransaction.Status status);
+
+    List<PaymentTransaction> findByStatusAndCreatedAtBeforeOrderById(PaymentTransaction.Status status,
+                                                                    LocalDateTime before, Pageable pageable);
+
+    List<PaymentTransaction> findByOrderIdOrderById(Integer orderId);
+}
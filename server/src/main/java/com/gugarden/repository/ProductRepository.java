@@ -1,17 +1,25 @@
 package com.gugarden.repository;
 
+import com.gugarden.dto.CatalogVersion;
 import com.gugarden.entity.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Integer> {
+public interface ProductRepository extends JpaRepository<Product, Integer>, ProductRepositoryCustom {
 
     @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.isActive = true ORDER BY p.createdAt DESC")
     List<Product> findAllActive();
@@ -19,8 +27,31 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.category.slug = :slug AND p.isActive = true ORDER BY p.createdAt DESC")
     List<Product> findByCategorySlugAndActive(@Param("slug") String slug);
 
-    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.isFeatured = true AND p.isActive = true ORDER BY p.createdAt DESC")
-    List<Product> findFeatured();
+    // Keyset pagination: (created_at, id) 내림차순, idx_products_active_created 사용
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.isActive = true ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findActiveFirstPage(Pageable pageable);
+
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.isActive = true AND " +
+           "(p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findActiveAfter(@Param("createdAt") LocalDateTime createdAt,
+                                  @Param("id") Integer id,
+                                  Pageable pageable);
+
+    @Query("SELECT p FROM Product p JOIN FETCH p.category c WHERE c.slug = :slug AND p.isActive = true " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findActiveByCategoryFirstPage(@Param("slug") String slug, Pageable pageable);
+
+    @Query("SELECT p FROM Product p JOIN FETCH p.category c WHERE c.slug = :slug AND p.isActive = true AND " +
+           "(p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findActiveByCategoryAfter(@Param("slug") String slug,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") Integer id,
+                                            Pageable pageable);
+
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.isFeatured = true AND p.isActive = true ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findFeatured(Pageable pageable);
 
     @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.isRentable = true AND p.isActive = true ORDER BY p.createdAt ASC")
     List<Product> findRentable();
@@ -28,28 +59,97 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.id = :id AND p.isActive = true")
     Optional<Product> findByIdAndActive(@Param("id") Integer id);
 
+    // 상세: 카테고리와 이미지까지 한 번에 조회
+    @EntityGraph(attributePaths = {"category", "images"})
+    @Query("SELECT p FROM Product p WHERE p.id = :id AND p.isActive = true")
+    Optional<Product> findDetailById(@Param("id") Integer id);
+
     @Query("SELECT COUNT(p) FROM Product p WHERE p.isActive = true")
     long countActive();
 
+    // Conditional GET: 목록별 버전 (건수, 최대 ID, 최종 수정 시각)
+    @Query("SELECT new com.gugarden.dto.CatalogVersion(COUNT(p), MAX(p.id), MAX(p.updatedAt)) FROM Product p WHERE p.isActive = true")
+    CatalogVersion findActiveVersion();
+
+    @Query("SELECT new com.gugarden.dto.CatalogVersion(COUNT(p), MAX(p.id), MAX(p.updatedAt)) FROM Product p " +
+           "WHERE p.category.slug = :slug AND p.isActive = true")
+    CatalogVersion findCategoryVersion(@Param("slug") String slug);
+
+    // 추천 목록은 상위 N개만 내려가므로 집계도 같은 N개(findFeatured와 같은 정렬)에 대해서만 한다
+    @Query("SELECT p.id, p.updatedAt FROM Product p WHERE p.isFeatured = true AND p.isActive = true ORDER BY p.createdAt DESC, p.id DESC")
+    List<Object[]> findFeaturedVersionRows(Pageable pageable);
+
+    default CatalogVersion findFeaturedVersion(Pageable pageable) {
+        List<Object[]> rows = findFeaturedVersionRows(pageable);
+        Integer maxId = null;
+        LocalDateTime lastUpdatedAt = null;
+        for (Object[] row : rows) {
+            Integer id = (Integer) row[0];
+            LocalDateTime updatedAt = (LocalDateTime) row[1];
+            if (maxId == null || id > maxId) {
+                maxId = id;
+            }
+            if (updatedAt != null && (lastUpdatedAt == null || updatedAt.isAfter(lastUpdatedAt))) {
+                lastUpdatedAt = updatedAt;
+            }
+        }
+        return new CatalogVersion(rows.size(), maxId, lastUpdatedAt);
+    }
+
+    @Query("SELECT new com.gugarden.dto.CatalogVersion(COUNT(p), MAX(p.id), MAX(p.updatedAt)) FROM Product p " +
+           "WHERE p.isRentable = true AND p.isActive = true")
+    CatalogVersion findRentableVersion();
+
+    // 상세: 이미지 건수/최대 ID + 상품 수정 시각
+    @Query("SELECT new com.gugarden.dto.CatalogVersion(COUNT(i), MAX(i.id), MAX(p.updatedAt)) FROM Product p " +
+           "LEFT JOIN p.images i WHERE p.id = :id AND p.isActive = true GROUP BY p.id")
+    Optional<CatalogVersion> findDetailVersion(@Param("id") Integer id);
+
+    // 현재 재고 (id, 상품명, 재고) — 영속성 컨텍스트의 엔티티가 아닌 DB 값을 읽는다
+    @Query("SELECT p.id, p.name, p.stock FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findStockByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Integer id);
+
+    // 샤드 설정 변경용 — 잠겨 있으면 기다리지 않고 실패 (NOWAIT)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "0"))
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdateNoWait(@Param("id") Integer id);
+
+    // 재고 경로(일반/샤드) 재확인: (상품 ID, stock_shards) — 잠금 읽기라 샤드 설정 변경이 커밋된 뒤의 값을 본다
+    @Query(value = "SELECT id, stock_shards FROM products WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockStockShardsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // 샤드 상품의 표시용 재고 갱신 — 값이 바뀐 경우에만 1 반환 (그 사이 샤드가 해제된 상품은 건드리지 않음)
     @Modifying
-    @Query("UPDATE Product p SET p.stock = p.stock - :quantity WHERE p.id = :id")
-    void decreaseStock(@Param("id") Integer id, @Param("quantity") int quantity);
+    @Query("UPDATE Product p SET p.stock = :stock, p.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE p.id = :id AND p.stockShards > 0 AND p.stock <> :stock")
+    int updateStockIfChanged(@Param("id") Integer id, @Param("stock") int stock);
 
+    // 일반 모드 상품만 — 샤드 모드로 바뀐 상품이면 0 (표시용 재고에 더하면 동기화 때 사라진다)
+    // updated_at도 함께 갱신해 목록/상세 버전이 재고 변경을 반영하도록 함
     @Modifying
-    @Query("UPDATE Product p SET p.stock = p.stock + :quantity WHERE p.id = :id")
-    void increaseStock(@Param("id") Integer id, @Param("quantity") int quantity);
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity, p.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE p.id = :id AND p.stockShards = 0")
+    int increaseStock(@Param("id") Integer id, @Param("quantity") int quantity);
+
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.id IN :ids AND p.isActive = true")
+    List<Product> findActiveByIdIn(@Param("ids") Collection<Integer> ids);
 
     // Admin: all products with optional filters
-    @Query("SELECT p FROM Product p JOIN FETCH p.category c WHERE " +
-           "(:category IS NULL OR c.slug = :category) AND " +
-           "(:search IS NULL OR p.name LIKE %:search%) " +
-           "ORDER BY p.createdAt DESC")
-    Page<Product> findAllForAdmin(@Param("category") String category,
-                                  @Param("search") String search,
-                                  Pageable pageable);
+    @Query(value = "SELECT p FROM Product p JOIN FETCH p.category c WHERE " +
+           "(:category IS NULL OR c.slug = :category) " +
+           "ORDER BY p.createdAt DESC",
+           countQuery = "SELECT COUNT(p) FROM Product p JOIN p.category c WHERE (:category IS NULL OR c.slug = :category)")
+    Page<Product> findAllForAdmin(@Param("category") String category, Pageable pageable);
+
+    // Admin: 검색 색인에서 찾은 한 페이지 분량의 상품 (순서는 호출하는 쪽에서 ID 목록대로)
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.id IN :ids")
+    List<Product> findAllForAdminByIdIn(@Param("ids") Collection<Integer> ids);
 
-    @Query("SELECT COUNT(p) FROM Product p JOIN p.category c WHERE " +
-           "(:category IS NULL OR c.slug = :category) AND " +
-           "(:search IS NULL OR p.name LIKE %:search%)")
-    long countForAdmin(@Param("category") String category, @Param("search") String search);
+    @Query("SELECT COUNT(p) FROM Product p JOIN p.category c WHERE c.slug = :category")
+    long countForAdmin(@Param("category") String category);
 }
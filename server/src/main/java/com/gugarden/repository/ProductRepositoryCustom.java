@@ -0,0 +1,12 @@
+package com.gugarden.repository;
+
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * 여러 상품의 재고를 UPDATE 한 번으로 차감한다. (상품 ID → 차감 수량)
+     * 재고가 차감 수량보다 적은 상품과 샤드 모드 상품은 차감하지 않으며, 실제로 차감된 상품 수를 반환한다.
+     */
+    int decreaseStocks(Map<Integer, Integer> quantities);
+}
@@ -0,0 +1,47 @@
+package com.gugarden.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.Map;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // UPDATE products SET stock = stock - CASE id WHEN ? THEN ? ... END
+    //  WHERE id IN (...) AND stock_shards = 0 AND stock >= CASE id WHEN ? THEN ? ... END
+    // 조건 검사와 차감이 한 문장에서 행 잠금 아래 이루어지므로 동시 주문에도 재고가 음수가 되지 않는다
+    // 샤드 모드로 바뀐 상품은 products.stock이 표시용이라 차감하지 않는다
+    @Override
+    public int decreaseStocks(Map<Integer, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+        StringBuilder cases = new StringBuilder();
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < quantities.size(); i++) {
+            cases.append(" WHEN ? THEN ?");
+            ids.append(i == 0 ? "?" : ", ?");
+        }
+
+        Query query = entityManager.createNativeQuery("UPDATE products SET stock = stock - CASE id" + cases +
+                " END, updated_at = CURRENT_TIMESTAMP WHERE id IN (" + ids + ") AND stock_shards = 0 AND stock >= CASE id" + cases + " END");
+        int position = bindCases(query, 1, quantities);
+        for (Integer id : quantities.keySet()) {
+            query.setParameter(position++, id);
+        }
+        bindCases(query, position, quantities);
+        return query.executeUpdate();
+    }
+
+    private static int bindCases(Query query, int position, Map<Integer, Integer> quantities) {
+        for (Map.Entry<Integer, Integer> e : quantities.entrySet()) {
+            query.setParameter(position++, e.getKey());
+            query.setParameter(position++, e.getValue());
+        }
+        return position;
+    }
+}
@@ -0,0 +1,52 @@
+package com.gugarden.repository;
+
+import com.gugarden.entity.ProductStockShard;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ProductStockShardRepository extends JpaRepository<ProductStockShard, Integer> {
+
+    // [fromShard, toShard) 구간에서 수량을 감당할 수 있는 첫 샤드를 잠금 — 다른 트랜잭션이 잠근 샤드는 기다리지 않고 건너뜀 (SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT s FROM ProductStockShard s WHERE s.productId = :productId " +
+           "AND s.shardNo >= :fromShard AND s.shardNo < :toShard AND s.stock >= :quantity ORDER BY s.shardNo")
+    List<ProductStockShard> findAvailableForUpdate(@Param("productId") Integer productId,
+                                                   @Param("fromShard") int fromShard,
+                                                   @Param("toShard") int toShard,
+                                                   @Param("quantity") int quantity,
+                                                   Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE ProductStockShard s SET s.stock = s.stock + :quantity " +
+           "WHERE s.productId = :productId AND s.shardNo = :shardNo")
+    int increase(@Param("productId") Integer productId, @Param("shardNo") int shardNo, @Param("quantity") int quantity);
+
+    // 재분배용: 상품의 전체 샤드를 shard_no 순서로 잠금
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ProductStockShard s WHERE s.productId = :productId ORDER BY s.shardNo")
+    List<ProductStockShard> findAllForUpdate(@Param("productId") Integer productId);
+
+    // 샤드 설정 변경용 — 잠겨 있으면 기다리지 않고 실패 (NOWAIT)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "0"))
+    @Query("SELECT s FROM ProductStockShard s WHERE s.productId = :productId ORDER BY s.shardNo")
+    List<ProductStockShard> findAllForUpdateNoWait(@Param("productId") Integer productId);
+
+    // 표시용 재고 동기화: (상품 ID, 샤드 재고 합계)
+    @Query("SELECT s.productId, SUM(s.stock) FROM ProductStockShard s GROUP BY s.productId")
+    List<Object[]> sumStockGroupByProduct();
+
+    @Modifying
+    @Query("DELETE FROM ProductStockShard s WHERE s.productId = :productId")
+    void deleteByProductId(@Param("productId") Integer productId);
+}
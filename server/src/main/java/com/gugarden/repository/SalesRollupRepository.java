@@ -0,0 +1,42 @@
+package com.gugarden.repository;
+
+import com.gugarden.entity.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    // 버킷 행이 없으면 생성, 있으면 누적 (음수 delta는 결제 취소 반영)
+    @Modifying
+    @Query(value = "INSERT INTO sales_rollups (granularity, bucket_start, product_id, category_id, revenue, units) " +
+                   "VALUES (:granularity, :bucketStart, :productId, :categoryId, :revenue, :units) " +
+                   "ON DUPLICATE KEY UPDATE revenue = revenue + VALUES(revenue), units = units + VALUES(units)",
+           nativeQuery = true)
+    void upsert(@Param("granularity") String granularity,
+                @Param("bucketStart") LocalDateTime bucketStart,
+                @Param("productId") Integer productId,
+                @Param("categoryId") Integer categoryId,
+                @Param("revenue") long revenue,
+                @Param("units") long units);
+
+    // 시계열: 버킷별 매출/판매수량 합계 (상품·카테고리 필터 선택)
+    @Query("SELECT r.bucketStart, SUM(r.revenue), SUM(r.units) FROM SalesRollup r " +
+           "WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "AND (:productId IS NULL OR r.productId = :productId) " +
+           "AND (:categoryId IS NULL OR r.categoryId = :categoryId) " +
+           "GROUP BY r.bucketStart ORDER BY r.bucketStart")
+    List<Object[]> sumByBucket(@Param("granularity") SalesRollup.Granularity granularity,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to,
+                               @Param("productId") Integer productId,
+                               @Param("categoryId") Integer categoryId);
+
+    @Modifying
+    @Query("DELETE FROM SalesRollup r")
+    void deleteAllRows();
+}
@@ -0,0 +1,25 @@
+package com.gugarden.repository;
+
+import com.gugarden.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Integer> {
+
+    // 행이 없으면 생성, 있으면 더 늦은 시각으로
+    @Modifying
+    @Query(value = "INSERT INTO token_revocations (user_id, revoked_at) VALUES (:userId, :revokedAt) " +
+                   "ON DUPLICATE KEY UPDATE revoked_at = GREATEST(revoked_at, VALUES(revoked_at))",
+           nativeQuery = true)
+    void upsert(@Param("userId") Integer userId, @Param("revokedAt") long revokedAt);
+
+    List<TokenRevocation> findByRevokedAtGreaterThan(long revokedAt);
+
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.revokedAt < :cutoff")
+    int deleteRevokedBefore(@Param("cutoff") long cutoff);
+}
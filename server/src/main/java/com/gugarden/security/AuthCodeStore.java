@@ -1,40 +1,19 @@
 package com.gugarden.security;
 
-import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.stereotype.Component;
+/**
+ * 소셜 로그인 일회용 코드 → JWT. 코드는 한 번만 교환할 수 있다.
+ * app.auth-store.type으로 구현을 고른다 — memory(서버 1대), db(여러 서버가 공유).
+ */
+public interface AuthCodeStore {
 
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+    long CODE_TTL = 60_000L; // 60초
 
-@Component
-public class AuthCodeStore {
+    String storeCode(String jwt);
 
-    private static final long CODE_TTL = 60_000L; // 60초
+    /**
+     * 코드에 해당하는 JWT. 없거나 만료되었거나 이미 교환된 코드면 null.
+     */
+    String exchangeCode(String code);
 
-    private record CodeEntry(String jwt, long expiresAt) {}
-
-    private final ConcurrentHashMap<String, CodeEntry> store = new ConcurrentHashMap<>();
-
-    public String storeCode(String jwt) {
-        String code = UUID.randomUUID().toString();
-        store.put(code, new CodeEntry(jwt, System.currentTimeMillis() + CODE_TTL));
-        return code;
-    }
-
-    public String exchangeCode(String code) {
-        CodeEntry entry = store.remove(code);
-        if (entry == null) {
-            return null;
-        }
-        if (System.currentTimeMillis() > entry.expiresAt()) {
-            return null;
-        }
-        return entry.jwt();
-    }
-
-    @Scheduled(fixedRate = 60000)
-    public void cleanup() {
-        long now = System.currentTimeMillis();
-        store.entrySet().removeIf(entry -> now > entry.getValue().expiresAt());
-    }
+    int size();
 }
@@ -7,6 +7,11 @@ import org.springframework.stereotype.Component;
 @Component
 public class CookieUtil {
 
+    public static final String REFRESH_COOKIE = "refresh_token";
+
+    // 리프레시 토큰은 갱신/로그아웃 요청에만 전송
+    private static final String REFRESH_PATH = "/api/auth";
+
     @Value("${app.cookie.secure:false}")
     private boolean secure;
 
@@ -14,26 +19,27 @@ public class CookieUtil {
     private String domain;
 
     public ResponseCookie createAuthCookie(String token, long maxAge) {
-        ResponseCookie.ResponseCookieBuilder builder = ResponseCookie.from("auth_token", token)
-                .httpOnly(true)
-                .secure(secure)
-                .path("/")
-                .maxAge(maxAge)
-                .sameSite("Lax");
+        return build("auth_token", token, "/", maxAge);
+    }
 
-        if (domain != null && !domain.isEmpty()) {
-            builder.domain(domain);
-        }
+    public ResponseCookie createClearCookie() {
+        return build("auth_token", "", "/", 0);
+    }
 
-        return builder.build();
+    public ResponseCookie createRefreshCookie(String token, long maxAge) {
+        return build(REFRESH_COOKIE, token, REFRESH_PATH, maxAge);
     }
 
-    public ResponseCookie createClearCookie() {
-        ResponseCookie.ResponseCookieBuilder builder = ResponseCookie.from("auth_token", "")
+    public ResponseCookie createClearRefreshCookie() {
+        return build(REFRESH_COOKIE, "", REFRESH_PATH, 0);
+    }
+
+    private ResponseCookie build(String name, String value, String path, long maxAge) {
+        ResponseCookie.ResponseCookieBuilder builder = ResponseCookie.from(name, value)
                 .httpOnly(true)
                 .secure(secure)
-                .path("/")
-                .maxAge(0)
+                .path(path)
+                .maxAge(maxAge)
                 .sameSite("Lax");
 
         if (domain != null && !domain.isEmpty()) {
@@ -0,0 +1,60 @@
+package com.gugarden.security;
+
+import com.gugarden.entity.AuthCode;
+import com.gugarden.repository.AuthCodeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 여러 서버가 공유하는 일회용 코드 저장소 (auth_codes).
+ * 콜백을 받은 서버와 코드 교환 요청을 받은 서버가 달라도 교환할 수 있다.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.auth-store.type", havingValue = "db")
+public class DbAuthCodeStore implements AuthCodeStore {
+
+    private final AuthCodeRepository authCodeRepository;
+
+    @Override
+    public String storeCode(String jwt) {
+        String code = UUID.randomUUID().toString();
+        authCodeRepository.save(AuthCode.builder()
+                .code(code)
+                .jwt(jwt)
+                .expiresAt(LocalDateTime.now().plusNanos(CODE_TTL * 1_000_000))
+                .build());
+        return code;
+    }
+
+    @Override
+    @Transactional
+    public String exchangeCode(String code) {
+        AuthCode entry = authCodeRepository.findById(code).orElse(null);
+        // 행을 지운 요청만 교환 — 동시에 같은 코드로 교환하면 한 요청만 성공
+        if (entry == null || authCodeRepository.deleteByCode(code) == 0) {
+            return null;
+        }
+        if (LocalDateTime.now().isAfter(entry.getExpiresAt())) {
+            return null;
+        }
+        return entry.getJwt();
+    }
+
+    @Override
+    public int size() {
+        return (int) authCodeRepository.count();
+    }
+
+    @Scheduled(fixedRate = 60000)
+    @Transactional
+    public void cleanup() {
+        authCodeRepository.deleteExpired(LocalDateTime.now());
+    }
+}
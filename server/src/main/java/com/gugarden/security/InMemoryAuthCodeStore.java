@@ -0,0 +1,48 @@
+package com.gugarden.security;
+
+import com.gugarden.config.ExpiryWheel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.auth-store.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryAuthCodeStore implements AuthCodeStore {
+
+    private record CodeEntry(String jwt, long expiresAt) {}
+
+    private final ExpiryWheel expiryWheel;
+
+    private final ConcurrentHashMap<String, CodeEntry> store = new ConcurrentHashMap<>();
+
+    @Override
+    public String storeCode(String jwt) {
+        String code = UUID.randomUUID().toString();
+        CodeEntry entry = new CodeEntry(jwt, System.currentTimeMillis() + CODE_TTL);
+        store.put(code, entry);
+        // 교환되지 않은 코드는 만료 시각에 제거
+        expiryWheel.schedule(entry.expiresAt(), () -> store.remove(code, entry));
+        return code;
+    }
+
+    @Override
+    public String exchangeCode(String code) {
+        CodeEntry entry = store.remove(code);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() > entry.expiresAt()) {
+            return null;
+        }
+        return entry.jwt();
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+}
@@ -1,7 +1,6 @@
 package com.gugarden.security;
 
 import com.gugarden.service.TokenBlacklistService;
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -10,18 +9,18 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    public static final String TOKEN_EXPIRED_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".TOKEN_EXPIRED";
+
     private final JwtTokenProvider jwtTokenProvider;
     private final TokenBlacklistService tokenBlacklistService;
 
@@ -33,34 +32,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (token != null) {
             try {
-                if (jwtTokenProvider.validateToken(token)) {
-                    Claims claims = jwtTokenProvider.getClaims(token);
-                    Integer userId = claims.get("id", Integer.class);
-                    String email = claims.get("email", String.class);
-                    String role = claims.get("role", String.class);
-
+                JwtTokenProvider.VerifiedToken verified = jwtTokenProvider.verify(token);
+                if (verified != null) {
                     // 블랙리스트 체크
-                    if (tokenBlacklistService.isBlacklisted(userId, claims.getIssuedAt().getTime())) {
+                    if (tokenBlacklistService.isBlacklisted(verified.principal().getId(), verified.issuedAt())) {
                         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                         response.setContentType("application/json;charset=UTF-8");
                         response.getWriter().write("{\"error\":\"토큰이 무효화되었습니다.\"}");
                         return;
                     }
 
-                    List<SimpleGrantedAuthority> authorities = List.of(
-                            new SimpleGrantedAuthority("ROLE_" + role.toUpperCase())
-                    );
-
-                    UserPrincipal principal = new UserPrincipal(userId, email, role);
                     UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(principal, null, authorities);
+                            new UsernamePasswordAuthenticationToken(verified.principal(), null, verified.authorities());
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
             } catch (ExpiredJwtException e) {
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.setContentType("application/json;charset=UTF-8");
-                response.getWriter().write("{\"error\":\"토큰이 만료되었습니다.\"}");
-                return;
+                // 만료된 토큰은 비로그인으로 통과 — 공개 경로는 그대로 응답하고, 인증이 필요한 경로만 401 (SecurityConfig)
+                request.setAttribute(TOKEN_EXPIRED_ATTRIBUTE, Boolean.TRUE);
             } catch (Exception e) {
                 // Token is invalid, continue without authentication
             }
@@ -69,6 +57,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // 갱신/로그아웃은 만료된 액세스 토큰이 함께 와도 처리되어야 한다
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path.equals("/api/auth/refresh") || path.equals("/api/auth/logout");
+    }
+
     private String resolveToken(HttpServletRequest request) {
         // 1. Authorization 헤더 우선
         String authHeader = request.getHeader("Authorization");
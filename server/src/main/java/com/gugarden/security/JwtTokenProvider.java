@@ -1,25 +1,55 @@
 package com.gugarden.security;
 
+import com.gugarden.config.ExpiryWheel;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 public class JwtTokenProvider {
 
+    /**
+     * 서명 검증을 마친 토큰의 인증 정보. 요청마다 새로 만들지 않도록 권한 목록까지 함께 둔다.
+     */
+    public record VerifiedToken(UserPrincipal principal, List<SimpleGrantedAuthority> authorities,
+                                long issuedAt, long expiresAt) {}
+
     private final SecretKey key;
     private final long expiration;
+    // 파서는 스레드 안전 — 한 번만 만든다
+    private final JwtParser parser;
+
+    // 검증된 토큰 캐시 (토큰 → 인증 정보). 토큰 만료 시각에 만료 휠이 제거한다
+    private final ConcurrentHashMap<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+    private final int cacheMaxEntries;
+    private final ExpiryWheel expiryWheel;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
 
     public JwtTokenProvider(
             @Value("${app.jwt.secret}") String secret,
-            @Value("${app.jwt.expiration}") long expiration) {
+            @Value("${app.jwt.expiration}") long expiration,
+            @Value("${app.jwt.cache-max-entries:10000}") int cacheMaxEntries,
+            ExpiryWheel expiryWheel) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expiration = expiration;
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.cacheMaxEntries = cacheMaxEntries;
+        this.expiryWheel = expiryWheel;
     }
 
     public String generateToken(Integer userId, String email, String role) {
@@ -37,11 +67,7 @@ public class JwtTokenProvider {
     }
 
     public Claims getClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public Integer getUserId(String token) {
@@ -57,14 +83,72 @@ public class JwtTokenProvider {
     }
 
     public boolean validateToken(String token) {
+        return verify(token) != null;
+    }
+
+    /**
+     * 토큰을 검증해 인증 정보를 돌려준다. 올바르지 않은 토큰이면 null, 만료되었으면 ExpiredJwtException.
+     * 한 번 검증한 토큰은 만료 시각까지 캐시에서 바로 돌려주므로 서명 검증은 토큰당 한 번이다.
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = verified.get(token);
+        if (cached != null) {
+            if (System.currentTimeMillis() < cached.expiresAt()) {
+                hits.increment();
+                return cached;
+            }
+            // 만료 — 아래 파싱에서 ExpiredJwtException이 난다
+            verified.remove(token, cached);
+        }
+
+        misses.increment();
+        Claims claims;
         try {
-            Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
-            return true;
+            claims = getClaims(token);
         } catch (ExpiredJwtException e) {
             throw e;
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            // 잘못된 토큰은 캐시하지 않는다 (임의 문자열로 캐시를 채울 수 없게)
+            return null;
         }
+
+        String role = claims.get("role", String.class);
+        Integer userId = claims.get("id", Integer.class);
+        if (role == null || userId == null || claims.getIssuedAt() == null || claims.getExpiration() == null) {
+            return null;
+        }
+        VerifiedToken result = new VerifiedToken(
+                new UserPrincipal(userId, claims.get("email", String.class), role),
+                List.of(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase())),
+                claims.getIssuedAt().getTime(), claims.getExpiration().getTime());
+
+        // 가득 차 있으면 내보낼 항목을 찾지 않고 캐시하지 않는다 — 자리는 만료 휠이 만료된 토큰을 치우면서 생긴다
+        if (verified.size() >= cacheMaxEntries) {
+            rejected.increment();
+        } else if (verified.putIfAbsent(token, result) == null) {
+            expiryWheel.schedule(result.expiresAt(), () -> {
+                if (verified.remove(token, result)) {
+                    expirations.increment();
+                }
+            });
+        }
+        return result;
+    }
+
+    public Map<String, Object> getCacheStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", verified.size());
+        stats.put("maxEntries", cacheMaxEntries);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("expirations", expirations.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
     }
 
     public String generateStateToken() {
@@ -81,11 +165,7 @@ public class JwtTokenProvider {
 
     public boolean validateStateToken(String stateToken) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(stateToken)
-                    .getPayload();
+            Claims claims = parser.parseSignedClaims(stateToken).getPayload();
             return "oauth_state".equals(claims.get("purpose", String.class));
         } catch (JwtException | IllegalArgumentException e) {
             return false;
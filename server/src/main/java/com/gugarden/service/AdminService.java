@@ -1,11 +1,19 @@
 package com.gugarden.service;
 
+import com.gugarden.config.ExpiryWheel;
+import com.gugarden.config.OutboundHttpGuard;
 import com.gugarden.entity.*;
+import com.gugarden.event.OrderStatusChangedEvent;
+import com.gugarden.event.ProductChangedEvent;
 import com.gugarden.exception.BadRequestException;
 import com.gugarden.exception.NotFoundException;
 import com.gugarden.repository.*;
+import com.gugarden.security.AuthCodeStore;
+import com.gugarden.security.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -27,28 +35,44 @@ public class AdminService {
     private final RentalInquiryRepository rentalInquiryRepository;
     private final FileUploadService fileUploadService;
     private final TokenBlacklistService tokenBlacklistService;
+    private final RefreshTokenService refreshTokenService;
+    private final PasswordHashingService passwordHashingService;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final CatalogCacheService catalogCacheService;
+    private final ProductSearchService productSearchService;
+    private final ProductSuggestService productSuggestService;
+    private final ProductDetailCacheService productDetailCacheService;
+    private final DashboardStatsService dashboardStatsService;
+    private final InventoryService inventoryService;
+    private final PaymentTransactionService paymentTransactionService;
+    private final OrderHoldSweeper orderHoldSweeper;
+    private final IdempotencyService idempotencyService;
+    private final OutboundHttpGuard outboundHttpGuard;
+    private final ExpiryWheel expiryWheel;
+    private final AuthCodeStore authCodeStore;
+    private final PaymentWebhookService paymentWebhookService;
+    private final SalesRollupService salesRollupService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ==================== Dashboard ====================
 
     public Map<String, Object> getDashboard() {
-        long totalOrders = orderRepository.count();
         long totalUsers = userRepository.count();
         long totalProducts = productRepository.countActive();
-        long pendingOrders = orderRepository.countPending();
 
-        // Revenue - use native query approach
-        long totalRevenue = orderRepository.sumTotalRevenue();
+        // 주문/매출 집계는 이벤트로 갱신되는 카운터 사용
+        Map<String, Object> orderStats = dashboardStatsService.getStats();
 
         List<Order> recentOrders = orderRepository.findTop5RecentOrders(PageRequest.of(0, 5));
 
         Map<String, Object> stats = new LinkedHashMap<>();
-        stats.put("totalOrders", totalOrders);
-        stats.put("todayOrders", orderRepository.countTodayOrders());
-        stats.put("totalRevenue", totalRevenue);
-        stats.put("todayRevenue", orderRepository.sumTodayRevenue());
+        stats.put("totalOrders", orderStats.get("totalOrders"));
+        stats.put("todayOrders", orderStats.get("todayOrders"));
+        stats.put("totalRevenue", orderStats.get("totalRevenue"));
+        stats.put("todayRevenue", orderStats.get("todayRevenue"));
         stats.put("totalUsers", totalUsers);
         stats.put("totalProducts", totalProducts);
-        stats.put("pendingOrders", pendingOrders);
+        stats.put("pendingOrders", orderStats.get("pendingOrders"));
 
         List<Map<String, Object>> recentOrderList = recentOrders.stream().map(o -> {
             Map<String, Object> map = new LinkedHashMap<>();
@@ -68,6 +92,29 @@ public class AdminService {
         return result;
     }
 
+    // ==================== Metrics ====================
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("catalogCache", catalogCacheService.getStats());
+        result.put("productDetailCache", productDetailCacheService.getStats());
+        result.put("productSearch", productSearchService.getStats());
+        result.put("productSuggest", productSuggestService.getStats());
+        result.put("inventory", inventoryService.getStats());
+        result.put("orderHolds", orderHoldSweeper.getStats());
+        result.put("idempotency", idempotencyService.getStats());
+        result.put("outboundHttp", outboundHttpGuard.getStats());
+        result.put("paymentWebhooks", paymentWebhookService.getStats());
+        result.put("salesRollup", salesRollupService.getStats());
+        result.put("jwtCache", jwtTokenProvider.getCacheStats());
+        result.put("refreshTokens", refreshTokenService.getStats());
+        result.put("tokenBlacklist", Map.of("size", tokenBlacklistService.size()));
+        result.put("authCodes", Map.of("size", authCodeStore.size()));
+        result.put("expiryWheel", expiryWheel.getStats());
+        result.put("passwordHashing", passwordHashingService.getStats());
+        return result;
+    }
+
     // ==================== Orders ====================
 
     public Map<String, Object> getOrders(int page, int limit, String status) {
@@ -82,9 +129,11 @@ public class AdminService {
 
         PageRequest pageRequest = PageRequest.of(page - 1, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
         Page<Order> orderPage = orderRepository.findAllForAdmin(orderStatus, pageRequest);
+        Map<Integer, Long> itemCounts = orderItemRepository.countByOrderIds(
+                orderPage.getContent().stream().map(Order::getId).toList());
 
         List<Map<String, Object>> orders = orderPage.getContent().stream().map(o -> {
-            long itemCount = orderItemRepository.countByOrderId(o.getId());
+            long itemCount = itemCounts.getOrDefault(o.getId(), 0L);
             Map<String, Object> map = new LinkedHashMap<>();
             map.put("id", o.getId());
             map.put("user_id", o.getUser() != null ? o.getUser().getId() : null);
@@ -167,21 +216,24 @@ public class AdminService {
             throw new BadRequestException("유효하지 않은 상태입니다.");
         }
 
-        Order order = orderRepository.findById(orderId)
+        // 사용자 취소/결제 기한 만료/결제 결과 반영과 같은 행을 잠가, 재고 복구가 한 번만 일어나도록
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new NotFoundException("주문을 찾을 수 없습니다."));
+        if (paymentTransactionService.isInFlight(orderId)) {
+            throw new BadRequestException("결제 처리 중인 주문입니다. 잠시 후 다시 시도해주세요.");
+        }
 
         Order.OrderStatus newStatus = Order.OrderStatus.valueOf(status);
 
-        // 취소로 변경 시 재고 복구
+        // 취소로 변경 시 재고 복구 (잠금 후 읽은 상태 기준)
         if (newStatus == Order.OrderStatus.cancelled && order.getStatus() != Order.OrderStatus.cancelled) {
-            List<OrderItem> items = orderItemRepository.findByOrderIdWithProduct(orderId);
-            for (OrderItem item : items) {
-                productRepository.increaseStock(item.getProduct().getId(), item.getQuantity());
-            }
+            inventoryService.release(orderItemRepository.findByOrderIdWithProduct(orderId));
         }
 
+        Order.OrderStatus previous = order.getStatus();
         order.setStatus(newStatus);
         orderRepository.save(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.changed(order, previous));
 
         return Map.of("message", "주문 상태가 변경되었습니다.", "status", status);
     }
@@ -193,7 +245,24 @@ public class AdminService {
         String srch = (search != null && !search.isEmpty()) ? search : null;
 
         PageRequest pageRequest = PageRequest.of(page - 1, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Product> productPage = productRepository.findAllForAdmin(cat, srch, pageRequest);
+        Page<Product> productPage;
+        if (srch == null) {
+            productPage = productRepository.findAllForAdmin(cat, pageRequest);
+        } else {
+            // 검색 색인에서 전체 ID 목록(상품명 일치, 최신순)을 받아 메모리에서 페이지를 자르고, 그 페이지만 조회
+            Integer categoryId = cat == null ? null
+                    : categoryRepository.findBySlug(cat).map(Category::getId).orElse(-1);
+            List<Integer> ids = productSearchService.searchByName(srch, categoryId);
+            int from = (int) Math.min(pageRequest.getOffset(), ids.size());
+            List<Integer> pageIds = ids.subList(from, Math.min(from + limit, ids.size()));
+
+            Map<Integer, Product> byId = new HashMap<>();
+            if (!pageIds.isEmpty()) {
+                productRepository.findAllForAdminByIdIn(pageIds).forEach(p -> byId.put(p.getId(), p));
+            }
+            List<Product> content = pageIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+            productPage = new PageImpl<>(content, pageRequest, ids.size());
+        }
 
         List<Map<String, Object>> products = productPage.getContent().stream().map(p -> {
             Map<String, Object> map = new LinkedHashMap<>();
@@ -205,6 +274,7 @@ public class AdminService {
             map.put("price", p.getPrice());
             map.put("sale_price", p.getSalePrice());
             map.put("stock", p.getStock());
+            map.put("stock_shards", p.getStockShards());
             map.put("thumbnail", p.getThumbnail());
             map.put("is_active", p.getIsActive());
             map.put("is_featured", p.getIsFeatured());
@@ -263,6 +333,7 @@ public class AdminService {
                 .build();
 
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(product));
 
         Map<String, Object> result = new HashMap<>();
         result.put("message", "상품이 등록되었습니다.");
@@ -288,7 +359,7 @@ public class AdminService {
         if (description != null) product.setDescription(description);
         if (price != null) product.setPrice(price);
         product.setSalePrice(salePrice);
-        if (stock != null) product.setStock(stock);
+        if (stock != null) inventoryService.setStock(product, stock);
         if (isActive != null) product.setIsActive(isActive);
         if (isFeatured != null) product.setIsFeatured(isFeatured);
         if (isRentable != null) product.setIsRentable(isRentable);
@@ -304,6 +375,7 @@ public class AdminService {
         product.setThumbnail(thumbnailPath);
 
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(product));
 
         return Map.of("message", "상품이 수정되었습니다.", "thumbnail", thumbnailPath != null ? thumbnailPath : "");
     }
@@ -317,9 +389,11 @@ public class AdminService {
         if (hasOrders) {
             product.setIsActive(false);
             productRepository.save(product);
+            eventPublisher.publishEvent(ProductChangedEvent.saved(product));
             return Map.of("message", "상품이 비활성화되었습니다. (주문 이력 존재)");
         } else {
             productRepository.delete(product);
+            eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
             return Map.of("message", "상품이 삭제되었습니다.");
         }
     }
@@ -365,6 +439,7 @@ public class AdminService {
                     .build();
             productImageRepository.save(image);
         }
+        eventPublisher.publishEvent(ProductChangedEvent.imagesChanged(productId));
 
         List<ProductImage> allImages = productImageRepository.findByProductIdOrderBySortOrderAsc(productId);
         List<Map<String, Object>> imageList = allImages.stream().map(img -> {
@@ -389,6 +464,7 @@ public class AdminService {
                 .orElseThrow(() -> new NotFoundException("이미지를 찾을 수 없습니다."));
 
         productImageRepository.delete(image);
+        eventPublisher.publishEvent(ProductChangedEvent.imagesChanged(image.getProduct().getId()));
         return Map.of("message", "이미지가 삭제되었습니다.");
     }
 
@@ -404,9 +480,13 @@ public class AdminService {
             userPage = userRepository.findAll(pageRequest);
         }
 
+        Map<Integer, OrderRepository.UserOrderStats> orderStats = orderRepository.findOrderStatsByUserIds(
+                userPage.getContent().stream().map(User::getId).toList());
+
         List<Map<String, Object>> users = userPage.getContent().stream().map(u -> {
-            long orderCount = orderRepository.countByUserId(u.getId());
-            long totalSpent = orderRepository.sumTotalSpentByUserId(u.getId());
+            OrderRepository.UserOrderStats stats = orderStats.getOrDefault(u.getId(), OrderRepository.UserOrderStats.EMPTY);
+            long orderCount = stats.orderCount();
+            long totalSpent = stats.totalSpent();
 
             Map<String, Object> map = new LinkedHashMap<>();
             map.put("id", u.getId());
@@ -481,6 +561,7 @@ public class AdminService {
         userRepository.save(user);
 
         tokenBlacklistService.invalidateUser(userId);
+        refreshTokenService.revokeAll(userId);
 
         return Map.of("message", "회원 역할이 변경되었습니다.");
     }
@@ -490,7 +571,7 @@ public class AdminService {
     public Map<String, Object> getCategories() {
         List<Category> categories = categoryRepository.findAll();
         List<Map<String, Object>> categoryList = categories.stream().map(c -> {
-            long productCount = productRepository.countForAdmin(c.getSlug(), null);
+            long productCount = productRepository.countForAdmin(c.getSlug());
             Map<String, Object> map = new LinkedHashMap<>();
             map.put("id", c.getId());
             map.put("name", c.getName());
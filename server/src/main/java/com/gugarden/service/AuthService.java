@@ -9,13 +9,14 @@ import com.gugarden.repository.CartItemRepository;
 import com.gugarden.repository.UserRepository;
 import com.gugarden.security.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
@@ -24,11 +25,13 @@ public class AuthService {
     private final UserRepository userRepository;
     private final CartItemRepository cartItemRepository;
     private final JwtTokenProvider jwtTokenProvider;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final TokenBlacklistService tokenBlacklistService;
+    private final RefreshTokenService refreshTokenService;
+    private final TransactionTemplate transactionTemplate;
 
-    @Transactional
-    public Map<String, Object> register(RegisterRequest request) {
+    // 해싱 대기 중에 DB 커넥션을 쥐고 있지 않도록 트랜잭션 없이 — 저장은 각 리포지토리 호출 단위로 커밋
+    public Map<String, Object> register(RegisterRequest request, String clientIp) {
         if (request.getEmail() == null || request.getPassword() == null || request.getName() == null) {
             throw new BadRequestException("이메일, 비밀번호, 이름은 필수입니다.");
         }
@@ -41,9 +44,11 @@ public class AuthService {
             throw new BadRequestException("이미 사용 중인 이메일입니다.");
         }
 
+        passwordHashingService.admit(clientIp, null);
+
         User user = User.builder()
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashingService.encode(request.getPassword()))
                 .name(request.getName())
                 .phone(request.getPhone())
                 .build();
@@ -55,6 +60,7 @@ public class AuthService {
         Map<String, Object> result = new HashMap<>();
         result.put("message", "회원가입이 완료되었습니다.");
         result.put("token", token);
+        result.put("refreshToken", refreshTokenService.issue(user.getId()));
         result.put("user", Map.of(
                 "id", user.getId(),
                 "email", user.getEmail(),
@@ -64,23 +70,31 @@ public class AuthService {
         return result;
     }
 
-    public Map<String, Object> login(LoginRequest request) {
+    public Map<String, Object> login(LoginRequest request, String clientIp) {
         if (request.getEmail() == null || request.getPassword() == null) {
             throw new BadRequestException("이메일과 비밀번호를 입력해주세요.");
         }
 
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new UnauthorizedException("이메일 또는 비밀번호가 일치하지 않습니다."));
+        passwordHashingService.admit(clientIp, request.getEmail());
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        User user = userRepository.findByEmail(request.getEmail()).orElse(null);
+        if (user == null || !passwordHashingService.matches(request.getPassword(), user.getPassword())) {
+            passwordHashingService.recordFailure(request.getEmail());
             throw new UnauthorizedException("이메일 또는 비밀번호가 일치하지 않습니다.");
         }
 
+        // 설정된 비용보다 낮은 해시는 평문을 알고 있는 지금 새 비용으로 교체
+        if (passwordHashingService.needsUpgrade(user.getPassword())) {
+            user.setPassword(passwordHashingService.upgrade(request.getPassword()));
+            userRepository.save(user);
+        }
+
         String token = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), user.getRole().name());
 
         Map<String, Object> result = new HashMap<>();
         result.put("message", "로그인 성공");
         result.put("token", token);
+        result.put("refreshToken", refreshTokenService.issue(user.getId()));
         result.put("user", Map.of(
                 "id", user.getId(),
                 "email", user.getEmail(),
@@ -124,8 +138,8 @@ public class AuthService {
         return Map.of("message", "정보가 수정되었습니다.");
     }
 
-    @Transactional
-    public Map<String, String> changePassword(Integer userId, ChangePasswordRequest request) {
+    // 검증/해싱은 트랜잭션 밖에서 하고, 저장과 토큰 폐기만 짧은 트랜잭션으로 묶는다
+    public Map<String, String> changePassword(Integer userId, ChangePasswordRequest request, String clientIp) {
         if (request.getCurrentPassword() == null || request.getNewPassword() == null) {
             throw new BadRequestException("현재 비밀번호와 새 비밀번호를 입력해주세요.");
         }
@@ -137,20 +151,35 @@ public class AuthService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("사용자를 찾을 수 없습니다."));
 
-        if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
+        passwordHashingService.admit(clientIp, user.getEmail());
+
+        String verifiedHash = user.getPassword();
+        if (!passwordHashingService.matches(request.getCurrentPassword(), verifiedHash)) {
+            passwordHashingService.recordFailure(user.getEmail());
             throw new BadRequestException("현재 비밀번호가 일치하지 않습니다.");
         }
+        String newHash = passwordHashingService.encode(request.getNewPassword());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User current = userRepository.findById(userId)
+                    .orElseThrow(() -> new NotFoundException("사용자를 찾을 수 없습니다."));
+            // 검증한 뒤 다른 요청이 비밀번호를 먼저 바꿨으면 현재 비밀번호가 더 이상 맞지 않는다
+            if (!Objects.equals(current.getPassword(), verifiedHash)) {
+                throw new BadRequestException("현재 비밀번호가 일치하지 않습니다.");
+            }
+            current.setPassword(newHash);
+            userRepository.save(current);
 
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-        userRepository.save(user);
-
-        tokenBlacklistService.invalidateUser(userId);
+            tokenBlacklistService.invalidateUser(userId);
+            refreshTokenService.revokeAll(userId);
+        });
 
         String newToken = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), user.getRole().name());
 
         Map<String, String> result = new HashMap<>();
         result.put("message", "비밀번호가 변경되었습니다.");
         result.put("token", newToken);
+        result.put("refreshToken", refreshTokenService.issue(userId));
         return result;
     }
 
@@ -177,10 +206,31 @@ public class AuthService {
         userRepository.save(user);
 
         tokenBlacklistService.invalidateUser(userId);
+        refreshTokenService.revokeAll(userId);
 
         return Map.of("message", "회원 탈퇴가 완료되었습니다.");
     }
 
+    /**
+     * 리프레시 토큰으로 액세스 토큰을 다시 발급한다. 리프레시 토큰도 새 토큰으로 바뀐다.
+     * 역할 등 사용자 정보는 이때 다시 읽어 토큰에 반영된다.
+     */
+    public Map<String, String> refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        User user = userRepository.findById(rotation.userId())
+                .orElseThrow(() -> new UnauthorizedException("다시 로그인해주세요."));
+
+        Map<String, String> result = new HashMap<>();
+        result.put("message", "토큰이 갱신되었습니다.");
+        result.put("token", jwtTokenProvider.generateToken(user.getId(), user.getEmail(), user.getRole().name()));
+        result.put("refreshToken", rotation.refreshToken());
+        return result;
+    }
+
+    public void logout(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
+    }
+
     // 소셜 로그인 처리
     @Transactional
     public String handleSocialLogin(User.Provider provider, String providerId, String email, String name, String phone, String profileImage) {
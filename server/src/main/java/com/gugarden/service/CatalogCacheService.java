@@ -0,0 +1,277 @@
+package com.gugarden.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gugarden.dto.CatalogVersion;
+import com.gugarden.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 공개 상품 목록(전체/추천/렌탈/카테고리별) 조회 결과 캐시.
+ * 크기와 TTL로 제한되며, 상품 변경 이벤트가 커밋된 뒤 해당 상품이 포함된 목록만 무효화한다.
+ * 목록별로 직렬화된 JSON/gzip 응답 본문과 ETag를 함께 보관해 조회 시 재직렬화하지 않는다.
+ * TTL이 지난 항목은 집계 쿼리로 구한 목록 버전이 그대로면 상품을 다시 로드하지 않고 재사용한다.
+ * 가득 차면 가장 오래 조회되지 않은 목록부터 내보낸다 (접근 순서 LinkedHashMap).
+ * 상품이 없는 카테고리(존재하지 않는 slug 포함)는 캐시에 넣지 않고 공용 빈 응답을 돌려주므로,
+ * 임의의 slug 요청으로 캐시가 채워져 다른 목록이 밀려나지 않는다.
+ */
+@Service
+public class CatalogCacheService {
+
+    public static final String KEY_ALL = "all";
+    public static final String KEY_FEATURED = "featured";
+    public static final String KEY_RENTABLE = "rentable";
+    private static final String CATEGORY_PREFIX = "category:";
+
+    /**
+     * 직렬화된 목록 응답. gzip은 압축 결과가 원본보다 작을 때만 존재한다.
+     * lastModified는 목록 상품의 최종 수정 시각(epoch millis)으로, 목록이 비어 있으면 로드한 시각이다.
+     */
+    public record Snapshot(byte[] json, byte[] gzip, String etag, long lastModified) {}
+
+    private record Entry(List<Map<String, Object>> products, Set<Integer> productIds, Integer categoryId,
+                         CatalogVersion version, long loadedAt, long expiresAt, Snapshot snapshot) {
+
+        Entry withSnapshot(Snapshot snapshot) {
+            return new Entry(products, productIds, categoryId, version, loadedAt, expiresAt, snapshot);
+        }
+
+        Entry renewed(long expiresAt) {
+            return new Entry(products, productIds, categoryId, version, loadedAt, expiresAt, snapshot);
+        }
+    }
+
+    private final Map<String, Entry> cache;
+
+    // 상품이 없는 카테고리 목록의 공용 응답 (처음 필요할 때 한 번 만든다)
+    private volatile Snapshot emptyCategory;
+
+    // 무효화가 일어날 때마다 증가 — 무효화 이전에 시작된 조회 결과가 캐시에 저장되는 것을 막는다
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+
+    private final LongAdder snapshotBuilds = new LongAdder();
+
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    public CatalogCacheService(
+            ObjectMapper objectMapper,
+            @Value("${app.catalog-cache.max-entries:256}") int maxEntries,
+            @Value("${app.catalog-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.objectMapper = objectMapper;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CatalogCacheService.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    public static String categoryKey(String slug) {
+        return CATEGORY_PREFIX + slug;
+    }
+
+    /**
+     * {"products": [...]} 형태로 직렬화된 목록 응답을 반환한다. 최초 요청 시 한 번만 직렬화/압축한다.
+     * versionLoader는 TTL이 지난 항목의 재검증에 사용되며, 상품을 로드하지 않는 집계 쿼리여야 한다.
+     */
+    public Snapshot getSnapshot(String key, Supplier<List<Map<String, Object>>> loader,
+                                Supplier<CatalogVersion> versionLoader) {
+        Entry entry = getEntry(key, loader, versionLoader);
+        if (entry.snapshot() != null) {
+            return entry.snapshot();
+        }
+        if (isEmptyCategory(key, entry)) {
+            Snapshot empty = emptyCategory;
+            if (empty == null) {
+                empty = buildSnapshot(List.of(), entry.loadedAt());
+                emptyCategory = empty;
+            }
+            return empty;
+        }
+
+        LocalDateTime lastUpdatedAt = entry.version().lastUpdatedAt();
+        long lastModified = lastUpdatedAt == null
+                ? entry.loadedAt()
+                : lastUpdatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Snapshot snapshot = buildSnapshot(entry.products(), lastModified);
+        cache.replace(key, entry, entry.withSnapshot(snapshot));
+        return snapshot;
+    }
+
+    private Entry getEntry(String key, Supplier<List<Map<String, Object>>> loader,
+                           Supplier<CatalogVersion> versionLoader) {
+        long now = System.currentTimeMillis();
+        Entry entry = cache.get(key);
+        if (entry != null) {
+            if (now < entry.expiresAt()) {
+                hits.increment();
+                return entry;
+            }
+
+            // 다른 경로(다른 서버, 직접 DB 수정)로 바뀌지 않았으면 기존 응답을 그대로 연장
+            long gen = generation.get();
+            if (entry.version().equals(versionLoader.get())) {
+                Entry renewed = entry.renewed(now + ttlMillis);
+                if (generation.get() == gen && cache.replace(key, entry, renewed)) {
+                    revalidations.increment();
+                    return renewed;
+                }
+            }
+            if (cache.remove(key, entry)) {
+                expirations.increment();
+            }
+        }
+
+        misses.increment();
+        long gen = generation.get();
+        entry = newEntry(key, List.copyOf(loader.get()), now);
+
+        if (generation.get() == gen && !isEmptyCategory(key, entry)) {
+            cache.put(key, entry);
+        }
+        return entry;
+    }
+
+    private static boolean isEmptyCategory(String key, Entry entry) {
+        return entry.products().isEmpty() && key.startsWith(CATEGORY_PREFIX);
+    }
+
+    private Entry newEntry(String key, List<Map<String, Object>> products, long now) {
+        Set<Integer> productIds = new HashSet<>();
+        Integer categoryId = null;
+        Integer maxId = null;
+        LocalDateTime lastUpdatedAt = null;
+        for (Map<String, Object> p : products) {
+            Integer id = (Integer) p.get("id");
+            LocalDateTime updatedAt = (LocalDateTime) p.get("updated_at");
+            productIds.add(id);
+            categoryId = (Integer) p.get("category_id");
+            if (maxId == null || id > maxId) {
+                maxId = id;
+            }
+            if (updatedAt != null && (lastUpdatedAt == null || updatedAt.isAfter(lastUpdatedAt))) {
+                lastUpdatedAt = updatedAt;
+            }
+        }
+        if (!key.startsWith(CATEGORY_PREFIX)) {
+            categoryId = null;
+        }
+        CatalogVersion version = new CatalogVersion(products.size(), maxId, lastUpdatedAt);
+        return new Entry(products, Set.copyOf(productIds), categoryId, version, now, now + ttlMillis, null);
+    }
+
+    private Snapshot buildSnapshot(List<Map<String, Object>> products, long lastModified) {
+        snapshotBuilds.increment();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(Map.of("products", products));
+            byte[] gzip = gzip(json);
+            String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+            return new Snapshot(json, gzip.length < json.length ? gzip : null, etag, lastModified);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("상품 목록 직렬화에 실패했습니다.", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.type()) {
+            // 신규/수정 상품은 아직 캐시된 목록에 없을 수 있으므로 공통 목록과 해당 카테고리 목록도 무효화
+            case SAVED -> invalidateIf((key, entry) -> containsAny(entry, event.productIds())
+                    || !key.startsWith(CATEGORY_PREFIX)
+                    || entry.categoryId() == null
+                    || entry.categoryId().equals(event.categoryId()));
+            case DELETED, STOCK -> invalidateIf((key, entry) -> containsAny(entry, event.productIds()));
+            case IMAGES -> {
+                // 목록 응답에는 상세 이미지가 포함되지 않음
+            }
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        invalidations.add(cache.size());
+        cache.clear();
+    }
+
+    private void invalidateIf(BiPredicate<String, Entry> predicate) {
+        generation.incrementAndGet();
+        synchronized (cache) {
+            Iterator<Map.Entry<String, Entry>> it = cache.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Entry> e = it.next();
+                if (predicate.test(e.getKey(), e.getValue())) {
+                    it.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    private static boolean containsAny(Entry entry, Set<Integer> productIds) {
+        for (Integer id : productIds) {
+            if (entry.productIds().contains(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", cache.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("revalidations", revalidations.sum());
+        stats.put("snapshotBuilds", snapshotBuilds.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,205 @@
+package com.gugarden.service;
+
+import com.gugarden.entity.Order;
+import com.gugarden.event.OrderStatusChangedEvent;
+import com.gugarden.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 관리자 대시보드 주문/매출 집계.
+ * 시작 시 orders 테이블을 집계해 메모리 카운터를 만들고, 이후 주문 생성·상태 변경 이벤트로 갱신한다.
+ * 보정 작업이 주기적으로 orders 테이블을 다시 집계해 카운터를 맞춘다. 집계는 서버마다 메모리에만 두고 저장하지 않는다
+ * (시작할 때 항상 orders에서 다시 집계하므로 저장해 둔 값은 쓰이지 않는다).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardStatsService {
+
+    private static final String KEY_TOTAL_ORDERS = "totalOrders";
+    private static final String KEY_TODAY_ORDERS = "todayOrders";
+    private static final String KEY_TOTAL_REVENUE = "totalRevenue";
+    private static final String KEY_TODAY_REVENUE = "todayRevenue";
+    private static final String KEY_PENDING_ORDERS = "pendingOrders";
+
+    private record Counters(LocalDate date, long totalOrders, long todayOrders,
+                            long totalRevenue, long todayRevenue, long pendingOrders) {
+
+        // 날짜가 바뀌면 오늘 집계는 0부터
+        Counters on(LocalDate today) {
+            return today.equals(date) ? this : new Counters(today, totalOrders, 0, totalRevenue, 0, pendingOrders);
+        }
+
+        Counters plus(Delta d) {
+            Counters c = on(d.date());
+            return new Counters(d.date(), c.totalOrders + d.orders(), c.todayOrders + d.todayOrders(),
+                    c.totalRevenue + d.revenue(), c.todayRevenue + d.todayRevenue(), c.pendingOrders + d.pending());
+        }
+    }
+
+    // 이벤트 하나가 카운터에 더하는 값
+    // orderId/from/to는 재집계 스냅샷에 이미 포함된 변경인지 가리는 데 쓴다
+    private record Delta(Integer orderId, Order.OrderStatus from, Order.OrderStatus to,
+                         LocalDate date, long orders, long todayOrders, long revenue, long todayRevenue, long pending) {}
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Object recountLock = new Object();
+
+    private Counters counters;
+    // 재집계 중에 반영된 이벤트 — 집계 결과에 다시 더한다 (재집계 중이 아니면 null)
+    private List<Delta> replay;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Counters loaded = recount();
+        log.info("대시보드 집계 로드: {}", loaded);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (counters == null && replay == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        boolean createdToday = event.createdAt() == null || event.createdAt().toLocalDate().equals(today);
+        long amount = event.totalAmount();
+        long revenue = amount * (revenue(event.to()) - revenue(event.from()));
+
+        Delta delta = new Delta(event.orderId(), event.from(), event.to(), today,
+                event.from() == null ? 1 : 0,
+                createdToday ? active(event.to()) - active(event.from()) : 0,
+                revenue,
+                createdToday ? revenue : 0,
+                pending(event.to()) - pending(event.from()));
+        if (replay != null) {
+            replay.add(delta);
+        }
+        if (counters != null) {
+            counters = counters.plus(delta);
+        }
+    }
+
+    // 신규 주문은 from이 null — 취소 상태와 같이 어떤 집계에도 포함되지 않은 것으로 본다
+    private static int active(Order.OrderStatus status) {
+        return status != null && status != Order.OrderStatus.cancelled ? 1 : 0;
+    }
+
+    private static int revenue(Order.OrderStatus status) {
+        return status != null && status.countsAsRevenue() ? 1 : 0;
+    }
+
+    private static int pending(Order.OrderStatus status) {
+        return status == Order.OrderStatus.pending ? 1 : 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Counters c;
+        synchronized (this) {
+            if (counters == null) {
+                c = null;
+            } else {
+                counters = counters.on(LocalDate.now());
+                c = counters;
+            }
+        }
+        if (c == null) {
+            c = recount();
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put(KEY_TOTAL_ORDERS, c.totalOrders());
+        stats.put(KEY_TODAY_ORDERS, c.todayOrders());
+        stats.put(KEY_TOTAL_REVENUE, c.totalRevenue());
+        stats.put(KEY_TODAY_REVENUE, c.todayRevenue());
+        stats.put(KEY_PENDING_ORDERS, c.pendingOrders());
+        return stats;
+    }
+
+    /**
+     * orders 테이블을 다시 집계해 카운터를 교체한다.
+     * 집계는 한 트랜잭션(같은 스냅샷)에서 하고, 집계하는 동안 반영된 이벤트 중 스냅샷에 없던 변경만 결과에 다시 더한다.
+     * 스냅샷에 포함됐는지는 같은 트랜잭션에서 읽은 해당 주문의 상태로 판단한다 — 이벤트는 커밋 직후 전달되므로
+     * 판단을 마친 뒤(카운터 교체 후) 도착한 이벤트는 스냅샷 이후에 커밋된 것으로 보고 그대로 더한다.
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard-stats.reconcile-interval-ms:600000}",
+            initialDelayString = "${app.dashboard-stats.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        recount();
+    }
+
+    private Counters recount() {
+        synchronized (recountLock) {
+            synchronized (this) {
+                replay = new ArrayList<>();
+            }
+            try {
+                return transactionTemplate.execute(status -> {
+                    LocalDate today = LocalDate.now();
+                    LocalDateTime startOfDay = today.atStartOfDay();
+                    Counters actual = new Counters(today,
+                            orderRepository.count(),
+                            orderRepository.countOrdersSince(startOfDay),
+                            orderRepository.sumTotalRevenue(),
+                            orderRepository.sumRevenueSince(startOfDay),
+                            orderRepository.countPending());
+                    // 상태 조회부터 카운터 교체까지 이벤트 반영을 막는다 (재집계 한 번에 한 번, 짧은 IN 조회)
+                    synchronized (this) {
+                        Counters merged = actual;
+                        for (Delta delta : notInSnapshot(replay)) {
+                            merged = merged.plus(delta);
+                        }
+                        replay = null;
+                        if (counters != null && !counters.on(merged.date()).equals(merged)) {
+                            log.warn("대시보드 집계 보정: {} -> {}", counters, merged);
+                        }
+                        counters = merged;
+                        return merged;
+                    }
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    replay = null;
+                }
+                throw e;
+            }
+        }
+    }
+
+    // 주문별로 이벤트를 순서대로 보고, 스냅샷의 상태가 된 마지막 변경까지는 이미 집계된 것으로 보고 뺀다
+    private List<Delta> notInSnapshot(List<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return deltas;
+        }
+        Map<Integer, Order.OrderStatus> snapshot = orderRepository.findStatusByIdIn(
+                deltas.stream().map(Delta::orderId).filter(Objects::nonNull).collect(Collectors.toSet()));
+        Map<Integer, Integer> lastIncluded = new HashMap<>();
+        for (int i = 0; i < deltas.size(); i++) {
+            Delta delta = deltas.get(i);
+            if (delta.orderId() != null && delta.to() == snapshot.get(delta.orderId())) {
+                lastIncluded.put(delta.orderId(), i);
+            }
+        }
+        List<Delta> missing = new ArrayList<>();
+        for (int i = 0; i < deltas.size(); i++) {
+            Delta delta = deltas.get(i);
+            if (i > lastIncluded.getOrDefault(delta.orderId(), -1)) {
+                missing.add(delta);
+            }
+        }
+        return missing;
+    }
+}
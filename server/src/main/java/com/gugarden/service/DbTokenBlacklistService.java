@@ -0,0 +1,106 @@
+package com.gugarden.service;
+
+import com.gugarden.config.ExpiryWheel;
+import com.gugarden.entity.TokenRevocation;
+import com.gugarden.repository.TokenRevocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 여러 서버가 공유하는 토큰 무효화 목록 (token_revocations).
+ * 요청마다의 확인은 서버 메모리의 사본에서 하고, 다른 서버가 기록한 무효화는 주기적으로 읽어 온다.
+ * 다른 서버에서의 무효화가 반영되기까지 최대 poll-interval-ms만큼 늦을 수 있다.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.auth-store.type", havingValue = "db")
+public class DbTokenBlacklistService implements TokenBlacklistService {
+
+    // 다른 서버의 커밋 지연과 서버 간 시계 차이만큼 이미 읽은 구간을 겹쳐 다시 읽는다
+    private static final long POLL_OVERLAP_MS = 10_000;
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final ExpiryWheel expiryWheel;
+    private final long accessTokenExpiration;
+
+    // userId → 무효화 시각 (epoch millis)
+    private final ConcurrentHashMap<Integer, Long> nearCache = new ConcurrentHashMap<>();
+
+    // 마지막으로 읽은 무효화 시각
+    private volatile long watermark;
+
+    public DbTokenBlacklistService(TokenRevocationRepository tokenRevocationRepository,
+                                   ExpiryWheel expiryWheel,
+                                   @Value("${app.jwt.expiration}") long accessTokenExpiration) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.expiryWheel = expiryWheel;
+        this.accessTokenExpiration = accessTokenExpiration;
+    }
+
+    // 역할 변경 등 호출한 트랜잭션과 함께 커밋된다
+    @Override
+    @Transactional
+    public void invalidateUser(Integer userId) {
+        long now = System.currentTimeMillis();
+        tokenRevocationRepository.upsert(userId, now);
+        remember(userId, now);
+    }
+
+    // 더 늦은 무효화 시각이면 반영하고, 액세스 토큰 유효 기간이 지나면 사본에서 제거
+    private void remember(Integer userId, long revokedAt) {
+        Long value = revokedAt;
+        boolean[] updated = new boolean[1];
+        nearCache.compute(userId, (id, current) -> {
+            if (current != null && current >= revokedAt) {
+                return current;
+            }
+            updated[0] = true;
+            return value;
+        });
+        if (updated[0]) {
+            expiryWheel.schedule(revokedAt + accessTokenExpiration, () -> nearCache.remove(userId, value));
+        }
+    }
+
+    @Override
+    public boolean isBlacklisted(Integer userId, long tokenIssuedAtMillis) {
+        Long invalidatedAt = nearCache.get(userId);
+        return invalidatedAt != null && tokenIssuedAtMillis < invalidatedAt;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.auth-store.poll-interval-ms:2000}",
+            initialDelayString = "${app.auth-store.poll-interval-ms:2000}")
+    public void poll() {
+        long cutoff = System.currentTimeMillis() - accessTokenExpiration;
+        long since = Math.max(watermark - POLL_OVERLAP_MS, cutoff);
+        long latest = watermark;
+        for (TokenRevocation revocation : tokenRevocationRepository.findByRevokedAtGreaterThan(since)) {
+            remember(revocation.getUserId(), revocation.getRevokedAt());
+            latest = Math.max(latest, revocation.getRevokedAt());
+        }
+        watermark = latest;
+    }
+
+    @Scheduled(fixedRate = 3600000) // 1시간마다
+    @Transactional
+    public void cleanup() {
+        int deleted = tokenRevocationRepository.deleteRevokedBefore(System.currentTimeMillis() - accessTokenExpiration);
+        if (deleted > 0) {
+            log.info("지난 토큰 무효화 기록 {}건 삭제", deleted);
+        }
+    }
+
+    @Override
+    public int size() {
+        return nearCache.size();
+    }
+}
@@ -0,0 +1,87 @@
+package com.gugarden.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 검색/자동완성용 한글 텍스트 처리 (정규화, 초성 추출, 자모 분해).
+ */
+final class HangulText {
+
+    private static final char SYLLABLE_FIRST = '가';
+    private static final char SYLLABLE_LAST = '힣';
+
+    static final char[] CHOSEONG = {
+            'ㄱ', 'ㄲ', 'ㄴ', 'ㄷ', 'ㄸ', 'ㄹ', 'ㅁ', 'ㅂ', 'ㅃ', 'ㅅ',
+            'ㅆ', 'ㅇ', 'ㅈ', 'ㅉ', 'ㅊ', 'ㅋ', 'ㅌ', 'ㅍ', 'ㅎ'
+    };
+
+    // 겹모음/겹받침은 입력 순서대로 나눠 타이핑 중인 글자도 접두어로 일치하도록 함
+    private static final String[] JUNGSEONG = {
+            "ㅏ", "ㅐ", "ㅑ", "ㅒ", "ㅓ", "ㅔ", "ㅕ", "ㅖ", "ㅗ", "ㅗㅏ", "ㅗㅐ",
+            "ㅗㅣ", "ㅛ", "ㅜ", "ㅜㅓ", "ㅜㅔ", "ㅜㅣ", "ㅠ", "ㅡ", "ㅡㅣ", "ㅣ"
+    };
+    private static final String[] JONGSEONG = {
+            "", "ㄱ", "ㄲ", "ㄱㅅ", "ㄴ", "ㄴㅈ", "ㄴㅎ", "ㄷ", "ㄹ", "ㄹㄱ", "ㄹㅁ", "ㄹㅂ", "ㄹㅅ", "ㄹㅌ",
+            "ㄹㅍ", "ㄹㅎ", "ㅁ", "ㅂ", "ㅂㅅ", "ㅅ", "ㅆ", "ㅇ", "ㅈ", "ㅊ", "ㅋ", "ㅌ", "ㅍ", "ㅎ"
+    };
+    private static final String COMPOUND_JAMO = "ㅘㅙㅚㅝㅞㅟㅢㄳㄵㄶㄺㄻㄼㄽㄾㄿㅀㅄ";
+    private static final String[] COMPOUND_JAMO_PARTS = {
+            "ㅗㅏ", "ㅗㅐ", "ㅗㅣ", "ㅜㅓ", "ㅜㅔ", "ㅜㅣ", "ㅡㅣ",
+            "ㄱㅅ", "ㄴㅈ", "ㄴㅎ", "ㄹㄱ", "ㄹㅁ", "ㄹㅂ", "ㄹㅅ", "ㄹㅌ", "ㄹㅍ", "ㄹㅎ", "ㅂㅅ"
+    };
+
+    private HangulText() {
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+    }
+
+    // 완성형 한글은 초성으로, 나머지 문자는 그대로
+    static String toChoseong(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if (isSyllable(c)) {
+                sb.append(CHOSEONG[(c - SYLLABLE_FIRST) / 588]);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // 완성형 한글과 겹자모를 낱자모로 분해 ("닭" -> "ㄷㅏㄹㄱ")
+    static String toJamo(String text) {
+        StringBuilder sb = new StringBuilder(text.length() * 3);
+        for (char c : text.toCharArray()) {
+            if (isSyllable(c)) {
+                int offset = c - SYLLABLE_FIRST;
+                sb.append(CHOSEONG[offset / 588])
+                        .append(JUNGSEONG[(offset % 588) / 28])
+                        .append(JONGSEONG[offset % 28]);
+            } else {
+                int compound = COMPOUND_JAMO.indexOf(c);
+                sb.append(compound >= 0 ? COMPOUND_JAMO_PARTS[compound] : String.valueOf(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    static boolean isChoseongOnly(String text) {
+        for (char c : text.toCharArray()) {
+            if (Arrays.binarySearch(CHOSEONG, c) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSyllable(char c) {
+        return c >= SYLLABLE_FIRST && c <= SYLLABLE_LAST;
+    }
+}
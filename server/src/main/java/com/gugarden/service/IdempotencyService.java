@@ -0,0 +1,270 @@
+package com.gugarden.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gugarden.entity.IdempotencyKey;
+import com.gugarden.exception.BadRequestException;
+import com.gugarden.exception.ConflictException;
+import com.gugarden.repository.IdempotencyKeyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key 헤더 처리.
+ * 같은 사용자가 같은 키로 다시 요청하면 처음 응답을 그대로 돌려주고, 처리 중인 같은 요청은 끝날 때까지 기다렸다가 그 응답을 돌려준다.
+ * 응답은 메모리에 두고 idempotency_keys 테이블에도 저장해 재시작/다른 서버에서도 재전송을 막는다.
+ * 실패한 요청(예외)은 저장하지 않으므로 같은 키로 다시 시도할 수 있다.
+ * 처리 중 표시는 임대 시간(lease)까지만 유효해, 처리하던 서버가 죽어 남은 키는 다음 재시도가 이어받는다.
+ * 이어받은 요청이 작업을 다시 실행하지 않도록, 한 트랜잭션으로 끝나는 작업(주문 생성)은 executeInTransaction으로
+ * 응답을 작업과 같은 트랜잭션에 저장한다. 외부 API 호출 때문에 트랜잭션을 나눈 작업(결제 승인)은 응답 저장 전에
+ * 서버가 죽으면 다시 실행되므로, 작업 스스로 이미 처리된 요청을 거절해야 한다 (결제 승인은 pending이 아닌 주문을 400으로 거절).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private record Stored(int status, String body) {}
+
+    private record Entry(String scope, CompletableFuture<Stored> result, long createdAt) {}
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    // 처리 중인 같은 요청을 기다리는 최대 시간
+    @Value("${app.idempotency.wait-ms:10000}")
+    private long waitMs;
+
+    // 처리 중 표시의 유효 시간 — 지나도록 응답이 저장되지 않으면 버려진 것으로 보고 다음 요청이 이어받는다
+    @Value("${app.idempotency.lease-seconds:60}")
+    private long leaseSeconds;
+
+    // 메모리에 보관할 완료 응답 수 — 넘치면 DB에서 조회
+    @Value("${app.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder memoryReplays = new LongAdder();
+    private final LongAdder dbReplays = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder takeovers = new LongAdder();
+
+    /**
+     * 키가 없으면 그대로 실행한다. scope는 요청을 구분하는 값(메서드 + 경로 + 대상 ID)이고 여기에 요청 본문의 해시를 붙여 비교하므로,
+     * 같은 키가 다른 요청이나 본문이 다른 요청에 쓰이면 400.
+     */
+    public ResponseEntity<Map<String, Object>> execute(Integer userId, String key, String scope, Object requestBody,
+                                                       Supplier<ResponseEntity<Map<String, Object>>> action) {
+        return execute(userId, key, scope, requestBody, action, false);
+    }
+
+    /**
+     * execute와 같지만 작업과 응답 저장을 한 트랜잭션으로 묶는다 — 작업이 커밋되면 응답도 저장되어 있으므로
+     * 처리하던 서버가 죽은 뒤 이어받은 요청이 작업을 다시 실행하지 않는다. 작업은 트랜잭션 안에서 끝나야 한다.
+     */
+    public ResponseEntity<Map<String, Object>> executeInTransaction(Integer userId, String key, String scope, Object requestBody,
+                                                                    Supplier<ResponseEntity<Map<String, Object>>> action) {
+        return execute(userId, key, scope, requestBody, action, true);
+    }
+
+    private ResponseEntity<Map<String, Object>> execute(Integer userId, String key, String scope, Object requestBody,
+                                                        Supplier<ResponseEntity<Map<String, Object>>> action,
+                                                        boolean transactional) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key는 " + MAX_KEY_LENGTH + "자 이하여야 합니다.");
+        }
+        scope = scope + "#" + bodyHash(requestBody);
+
+        String cacheKey = userId + ":" + key;
+        Entry entry = new Entry(scope, new CompletableFuture<>(), System.currentTimeMillis());
+        Entry existing = entries.putIfAbsent(cacheKey, entry);
+        if (existing != null) {
+            checkScope(existing.scope(), scope);
+            LongAdder counter = existing.result().isDone() ? memoryReplays : waits;
+            return replay(await(existing), counter);
+        }
+
+        IdempotencyKey row;
+        try {
+            IdempotencyKey saved = idempotencyKeyRepository.findByUserIdAndIdemKey(userId, key).orElse(null);
+            LocalDateTime now = LocalDateTime.now();
+            if (saved != null) {
+                checkScope(saved.getScope(), scope);
+                if (saved.getResponseStatus() != null) {
+                    Stored stored = new Stored(saved.getResponseStatus(), saved.getResponseBody());
+                    entry.result().complete(stored);
+                    return replay(stored, dbReplays);
+                }
+                // 처리 중 표시가 임대 시간을 넘겼으면 이어받는다 (여러 서버가 동시에 시도해도 한 곳만 성공)
+                LocalDateTime leaseUntil = now.plusSeconds(leaseSeconds);
+                if (idempotencyKeyRepository.takeOver(saved.getId(), now, leaseUntil) == 0) {
+                    conflicts.increment();
+                    throw new ConflictException("같은 요청을 처리 중입니다. 잠시 후 다시 시도해주세요.");
+                }
+                takeovers.increment();
+                saved.setLeaseUntil(leaseUntil);
+                row = saved;
+            } else {
+                row = idempotencyKeyRepository.saveAndFlush(IdempotencyKey.builder()
+                        .userId(userId)
+                        .idemKey(key)
+                        .scope(scope)
+                        .leaseUntil(now.plusSeconds(leaseSeconds))
+                        .expiresAt(now.plusHours(ttlHours))
+                        .build());
+            }
+        } catch (DataIntegrityViolationException e) {
+            // 다른 서버가 같은 키를 먼저 등록
+            entries.remove(cacheKey, entry);
+            entry.result().cancel(false);
+            conflicts.increment();
+            throw new ConflictException("같은 요청을 처리 중입니다. 잠시 후 다시 시도해주세요.");
+        } catch (RuntimeException e) {
+            entries.remove(cacheKey, entry);
+            entry.result().cancel(false);
+            throw e;
+        }
+
+        ResponseEntity<Map<String, Object>> response;
+        try {
+            response = transactional
+                    ? transactionTemplate.execute(status -> saveResponse(row, action.get()))
+                    : saveResponse(row, action.get());
+        } catch (RuntimeException e) {
+            entries.remove(cacheKey, entry);
+            entry.result().completeExceptionally(e);
+            idempotencyKeyRepository.delete(row);
+            throw e;
+        }
+        executions.increment();
+
+        entry.result().complete(new Stored(row.getResponseStatus(), row.getResponseBody()));
+        if (entries.size() > maxEntries) {
+            entries.remove(cacheKey, entry);
+        }
+        return response;
+    }
+
+    private ResponseEntity<Map<String, Object>> saveResponse(IdempotencyKey row, ResponseEntity<Map<String, Object>> response) {
+        row.setResponseStatus(response.getStatusCode().value());
+        row.setResponseBody(toJson(response.getBody()));
+        idempotencyKeyRepository.save(row);
+        return response;
+    }
+
+    // 요청 본문의 SHA-256 (base64url) — 본문이 다른 재사용을 scope 비교로 걸러낸다
+    private String bodyHash(Object requestBody) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(requestBody);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void checkScope(String original, String scope) {
+        if (!original.equals(scope)) {
+            throw new BadRequestException("다른 요청에 사용된 Idempotency-Key입니다.");
+        }
+    }
+
+    // 먼저 들어온 요청이 실패하면 그 예외를 그대로 던진다 — 클라이언트는 같은 키로 다시 시도할 수 있다
+    private Stored await(Entry entry) {
+        try {
+            return entry.result().get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException | CancellationException e) {
+            conflicts.increment();
+            throw new ConflictException("같은 요청을 처리 중입니다. 잠시 후 다시 시도해주세요.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("같은 요청을 처리 중입니다. 잠시 후 다시 시도해주세요.");
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> replay(Stored stored, LongAdder counter) {
+        counter.increment();
+        try {
+            Map<String, Object> body = stored.body() == null ? null
+                    : objectMapper.readValue(stored.body(), new TypeReference<Map<String, Object>>() {});
+            return ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true").body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("저장된 응답을 읽을 수 없습니다.", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("응답 직렬화에 실패했습니다.", e);
+        }
+    }
+
+    /**
+     * 보관 기간이 지난 키를 메모리와 DB에서 지운다.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:600000}",
+            initialDelayString = "${app.idempotency.cleanup-interval-ms:600000}")
+    @Transactional
+    public void cleanup() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(ttlHours);
+        entries.values().removeIf(e -> e.result().isDone() && e.createdAt() < cutoff);
+        int deleted = idempotencyKeyRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("만료된 Idempotency-Key {}건 삭제", deleted);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("executions", executions.sum());
+        stats.put("memoryReplays", memoryReplays.sum());
+        stats.put("dbReplays", dbReplays.sum());
+        stats.put("waits", waits.sum());
+        stats.put("conflicts", conflicts.sum());
+        stats.put("takeovers", takeovers.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,49 @@
+package com.gugarden.service;
+
+import com.gugarden.config.ExpiryWheel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@ConditionalOnProperty(name = "app.auth-store.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryTokenBlacklistService implements TokenBlacklistService {
+
+    // userId → 무효화 시각 (epoch millis)
+    private final ConcurrentHashMap<Integer, Long> blacklist = new ConcurrentHashMap<>();
+
+    private final ExpiryWheel expiryWheel;
+
+    // 액세스 토큰 유효 기간 — 무효화 이전에 발급된 토큰도 이 시간이 지나면 만료되므로 그 이상 보관하지 않는다
+    private final long accessTokenExpiration;
+
+    public InMemoryTokenBlacklistService(ExpiryWheel expiryWheel,
+                                         @Value("${app.jwt.expiration}") long accessTokenExpiration) {
+        this.expiryWheel = expiryWheel;
+        this.accessTokenExpiration = accessTokenExpiration;
+    }
+
+    @Override
+    public void invalidateUser(Integer userId) {
+        Long invalidatedAt = System.currentTimeMillis();
+        blacklist.put(userId, invalidatedAt);
+        // 그 사이 다시 무효화되었으면 새 시각은 남긴다
+        expiryWheel.schedule(invalidatedAt + accessTokenExpiration, () -> blacklist.remove(userId, invalidatedAt));
+    }
+
+    @Override
+    public boolean isBlacklisted(Integer userId, long tokenIssuedAtMillis) {
+        Long invalidatedAt = blacklist.get(userId);
+        if (invalidatedAt == null) {
+            return false;
+        }
+        return tokenIssuedAtMillis < invalidatedAt;
+    }
+
+    @Override
+    public int size() {
+        return blacklist.size();
+    }
+}
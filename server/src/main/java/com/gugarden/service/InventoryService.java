@@ -0,0 +1,308 @@
+package com.gugarden.service;
+
+import com.gugarden.entity.CartItem;
+import com.gugarden.entity.OrderItem;
+import com.gugarden.entity.Product;
+import com.gugarden.entity.ProductStockShard;
+import com.gugarden.event.ProductChangedEvent;
+import com.gugarden.exception.BadRequestException;
+import com.gugarden.exception.ConflictException;
+import com.gugarden.exception.NotFoundException;
+import com.gugarden.repository.ProductRepository;
+import com.gugarden.repository.ProductStockShardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 재고 차감/복구.
+ * 일반 상품은 products.stock을 조건부 UPDATE로 차감하고,
+ * 샤드 모드 상품(stock_shards > 0)은 재고를 product_stock_shards의 여러 행에 나눠 두고 임의의 샤드에서 차감해
+ * 동시 주문이 한 행의 잠금에 몰리지 않게 한다. 이때 products.stock은 샤드 합계를 주기적으로 반영한 표시용 값이다.
+ * 장바구니/주문 상품의 모드는 잠금 없이 읽은 값이라, 관리자가 그 사이 모드를 바꾸면 한쪽 경로의 UPDATE가
+ * 0건이 되고 그때 현재 모드를 다시 확인해 맞는 경로로 처리한다 (어느 쪽 경로도 모드가 다른 행은 건드리지 않는다).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryService {
+
+    private final ProductRepository productRepository;
+    private final ProductStockShardRepository productStockShardRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final int CONFIGURE_ATTEMPTS = 50;
+    private static final long CONFIGURE_BACKOFF_MS = 20;
+
+    private final LongAdder shardHits = new LongAdder();
+    private final LongAdder shardRetries = new LongAdder();
+    private final LongAdder rebalances = new LongAdder();
+    private final LongAdder syncUpdates = new LongAdder();
+    private final LongAdder modeChanges = new LongAdder();
+    private final LongAdder configureRetries = new LongAdder();
+
+    private enum ShardResult { RESERVED, INSUFFICIENT, NO_SHARDS, BUSY }
+
+    /**
+     * 장바구니 상품 재고를 차감한다. 하나라도 모자라면 BadRequestException — 호출한 트랜잭션 전체가 롤백된다.
+     */
+    @Transactional
+    public void reserve(List<CartItem> cartItems) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        Map<Integer, Integer> shardCounts = new TreeMap<>();
+        Map<Integer, String> names = new HashMap<>();
+        for (CartItem ci : cartItems) {
+            Product p = ci.getProduct();
+            if (p.getStockShards() > 0) {
+                shardCounts.put(p.getId(), p.getStockShards());
+            }
+            names.put(p.getId(), p.getName());
+            quantities.merge(p.getId(), ci.getQuantity(), Integer::sum);
+        }
+
+        Map<Integer, Integer> plain = new LinkedHashMap<>(quantities);
+        plain.keySet().removeAll(shardCounts.keySet());
+        int decreased = productRepository.decreaseStocks(plain);
+        // 모드 재확인으로 상품 행을 잠근 채 샤드 경로로 넘어간 상품
+        Set<Integer> productLocked = new HashSet<>();
+        if (decreased < plain.size()) {
+            // 재고 부족이거나 그 사이 샤드 모드로 바뀐 상품 — 잠금 읽기로 현재 모드를 확인해 샤드 경로로 넘긴다
+            for (Object[] row : productRepository.lockStockShardsByIdIn(plain.keySet())) {
+                int shards = ((Number) row[1]).intValue();
+                if (shards > 0) {
+                    Integer productId = ((Number) row[0]).intValue();
+                    plain.remove(productId);
+                    shardCounts.put(productId, shards);
+                    productLocked.add(productId);
+                    modeChanges.increment();
+                }
+            }
+            if (decreased < plain.size()) {
+                throw insufficientStock(plain);
+            }
+        }
+
+        Set<Integer> changed = new LinkedHashSet<>(plain.keySet());
+        for (Map.Entry<Integer, Integer> e : shardCounts.entrySet()) {
+            Integer productId = e.getKey();
+            int quantity = quantities.get(productId);
+            ShardResult result = reserveSharded(productId, e.getValue(), quantity, productLocked.contains(productId));
+            if (result == ShardResult.NO_SHARDS) {
+                // 그 사이 일반 모드로 돌아감
+                modeChanges.increment();
+                if (productRepository.decreaseStocks(Map.of(productId, quantity)) == 0) {
+                    throw insufficientStock(Map.of(productId, quantity));
+                }
+                changed.add(productId);
+            } else if (result == ShardResult.INSUFFICIENT) {
+                throw new BadRequestException(names.get(productId) + "의 재고가 부족합니다.");
+            } else if (result == ShardResult.BUSY) {
+                throw new ConflictException("주문이 몰리고 있는 상품입니다. 잠시 후 다시 시도해주세요.");
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(ProductChangedEvent.stockChanged(changed));
+        }
+    }
+
+    /*
+     * 임의의 샤드부터 수량을 감당할 수 있는 샤드 하나를 잠가 차감한다.
+     * 다른 주문이 잠근 샤드는 건너뛰고(SKIP LOCKED), 재고가 모자란 샤드는 잠그지 않으므로
+     * 이 단계에서는 기다리지도, 쓰지 않을 잠금을 쥐지도 않는다.
+     * 그런 샤드가 없을 때만 전체 샤드를 shard_no 순서로 잠가 합계에서 차감하고 고르게 재분배한다.
+     * 잠금 순서가 항상 (상품 ID, shard_no) 오름차순이 되어 교착 상태가 생기지 않는다.
+     * 잠근 샤드가 하나도 없으면 샤드가 해제된 것이다 (해제는 샤드를 잠근 뒤 지우므로 기다렸다가 빈 결과를 받는다).
+     * 모드 재확인으로 상품 행을 이미 잠근 주문은 전체 샤드를 기다리지 않는다 — 샤드를 쥔 다른 주문이
+     * 주문 상품 INSERT의 FK 확인으로 그 상품 행을 기다리고 있을 수 있어 교착되기 때문이다 (BUSY → 409).
+     */
+    private ShardResult reserveSharded(Integer productId, int shardCount, int quantity, boolean holdsProductLock) {
+        int start = ThreadLocalRandom.current().nextInt(shardCount);
+        ProductStockShard shard = findAvailable(productId, start, shardCount, quantity);
+        if (shard == null && start > 0) {
+            shard = findAvailable(productId, 0, start, quantity);
+        }
+        if (shard != null) {
+            (shard.getShardNo() == start ? shardHits : shardRetries).increment();
+            shard.setStock(shard.getStock() - quantity);
+            return ShardResult.RESERVED;
+        }
+        if (holdsProductLock) {
+            return ShardResult.BUSY;
+        }
+
+        List<ProductStockShard> shards = productStockShardRepository.findAllForUpdate(productId);
+        if (shards.isEmpty()) {
+            return ShardResult.NO_SHARDS;
+        }
+        int total = shards.stream().mapToInt(ProductStockShard::getStock).sum();
+        if (total < quantity) {
+            return ShardResult.INSUFFICIENT;
+        }
+        distribute(shards, total - quantity);
+        rebalances.increment();
+        return ShardResult.RESERVED;
+    }
+
+    private ProductStockShard findAvailable(Integer productId, int fromShard, int toShard, int quantity) {
+        List<ProductStockShard> found = productStockShardRepository.findAvailableForUpdate(
+                productId, fromShard, toShard, quantity, PageRequest.of(0, 1));
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private static void distribute(List<ProductStockShard> shards, int total) {
+        int base = total / shards.size();
+        int extra = total % shards.size();
+        for (int i = 0; i < shards.size(); i++) {
+            shards.get(i).setStock(base + (i < extra ? 1 : 0));
+        }
+    }
+
+    private BadRequestException insufficientStock(Map<Integer, Integer> quantities) {
+        for (Object[] row : productRepository.findStockByIdIn(quantities.keySet())) {
+            int stock = (Integer) row[2];
+            if (stock < quantities.get((Integer) row[0])) {
+                return new BadRequestException(row[1] + "의 재고가 부족합니다. (재고: " + stock + "개)");
+            }
+        }
+        return new BadRequestException("재고가 부족합니다.");
+    }
+
+    /**
+     * 주문 취소/결제 실패 시 주문 상품 재고를 되돌린다.
+     */
+    @Transactional
+    public void release(List<OrderItem> items) {
+        List<Integer> plainIds = new ArrayList<>();
+        for (OrderItem item : items) {
+            Integer productId = item.getProduct().getId();
+            int shards = item.getProduct().getStockShards();
+            if (!increase(productId, shards, item.getQuantity())) {
+                // 그 사이 샤드 설정이 바뀜 (샤드가 지워졌거나 일반 ↔ 샤드 전환) — 상품 행을 잠가 현재 모드로 되돌린다
+                modeChanges.increment();
+                shards = ((Number) productRepository.lockStockShardsByIdIn(List.of(productId)).get(0)[1]).intValue();
+                increase(productId, shards, item.getQuantity());
+            }
+            if (shards == 0) {
+                plainIds.add(productId);
+            }
+        }
+        if (!plainIds.isEmpty()) {
+            eventPublisher.publishEvent(ProductChangedEvent.stockChanged(plainIds));
+        }
+    }
+
+    private boolean increase(Integer productId, int shards, int quantity) {
+        if (shards > 0) {
+            return productStockShardRepository.increase(productId,
+                    ThreadLocalRandom.current().nextInt(shards), quantity) == 1;
+        }
+        return productRepository.increaseStock(productId, quantity) == 1;
+    }
+
+    /**
+     * 관리자 재고 수정. 샤드 상품이면 샤드에 고르게 다시 나눈다.
+     */
+    @Transactional
+    public void setStock(Product product, int stock) {
+        if (product.getStockShards() > 0) {
+            distribute(productStockShardRepository.findAllForUpdate(product.getId()), stock);
+        }
+        product.setStock(stock);
+    }
+
+    /**
+     * 샤드 수 변경. 0이면 샤드의 재고를 products.stock으로 합쳐 일반 모드로 되돌린다.
+     * 주문은 샤드를 잠근 채 상품 행(FK 확인)을 기다리고 상품 행을 잠근 채 샤드를 기다릴 수 있으므로,
+     * 여기서는 어느 잠금도 기다리지 않고(NOWAIT) 실패하면 트랜잭션을 버리고 다시 시도한다 — 주문과 교착되지 않는다.
+     */
+    public Map<String, Object> configureShards(Integer productId, int shardCount) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyShards(productId, shardCount));
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= CONFIGURE_ATTEMPTS) {
+                    throw new ConflictException("주문이 처리 중인 상품입니다. 잠시 후 다시 시도해주세요.");
+                }
+                configureRetries.increment();
+                try {
+                    Thread.sleep(CONFIGURE_BACKOFF_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new ConflictException("주문이 처리 중인 상품입니다. 잠시 후 다시 시도해주세요.");
+                }
+            }
+        }
+    }
+
+    private Map<String, Object> applyShards(Integer productId, int shardCount) {
+        Product product = productRepository.findByIdForUpdateNoWait(productId)
+                .orElseThrow(() -> new NotFoundException("상품을 찾을 수 없습니다."));
+
+        int total = product.getStockShards() > 0
+                ? productStockShardRepository.findAllForUpdateNoWait(productId).stream().mapToInt(ProductStockShard::getStock).sum()
+                : product.getStock();
+        productStockShardRepository.deleteByProductId(productId);
+
+        if (shardCount > 0) {
+            List<ProductStockShard> shards = new ArrayList<>();
+            for (int i = 0; i < shardCount; i++) {
+                shards.add(ProductStockShard.builder().productId(productId).shardNo(i).stock(0).build());
+            }
+            distribute(shards, total);
+            productStockShardRepository.saveAll(shards);
+        }
+        product.setStockShards(shardCount);
+        product.setStock(total);
+        log.info("재고 샤드 변경: 상품 {} → {}개 (재고 {})", productId, shardCount, total);
+        eventPublisher.publishEvent(ProductChangedEvent.stockChanged(List.of(productId)));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("message", shardCount > 0 ? "재고 샤드가 설정되었습니다." : "재고 샤드가 해제되었습니다.");
+        result.put("shards", shardCount);
+        result.put("stock", total);
+        return result;
+    }
+
+    /**
+     * 샤드 상품의 표시용 재고(products.stock)를 샤드 합계로 맞춘다.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.shard-sync-interval-ms:5000}",
+            initialDelayString = "${app.inventory.shard-sync-interval-ms:5000}")
+    @Transactional
+    public void syncShardedStock() {
+        List<Integer> changed = new ArrayList<>();
+        for (Object[] row : productStockShardRepository.sumStockGroupByProduct()) {
+            Integer productId = (Integer) row[0];
+            if (productRepository.updateStockIfChanged(productId, ((Number) row[1]).intValue()) == 1) {
+                changed.add(productId);
+            }
+        }
+        if (!changed.isEmpty()) {
+            syncUpdates.add(changed.size());
+            eventPublisher.publishEvent(ProductChangedEvent.stockChanged(changed));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("shardHits", shardHits.sum());
+        stats.put("shardRetries", shardRetries.sum());
+        stats.put("rebalances", rebalances.sum());
+        stats.put("syncUpdates", syncUpdates.sum());
+        stats.put("modeChanges", modeChanges.sum());
+        stats.put("configureRetries", configureRetries.sum());
+        return stats;
+    }
+}
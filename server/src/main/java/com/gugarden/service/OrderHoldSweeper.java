@@ -0,0 +1,85 @@
+package com.gugarden.service;
+
+import com.gugarden.entity.Order;
+import com.gugarden.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 결제 기한(hold_expires_at)이 지난 결제 대기 주문을 주기적으로 취소해 잡혀 있던 재고를 되돌린다.
+ * 주문마다 별도 트랜잭션으로 처리하므로 한 건이 실패해도 나머지는 계속 진행된다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderHoldSweeper {
+
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+
+    @Value("${app.order-hold.batch-size:100}")
+    private int batchSize;
+
+    // 한 번의 실행에서 처리할 최대 배치 수 — 남은 주문은 다음 실행에서
+    @Value("${app.order-hold.max-batches:10}")
+    private int maxBatches;
+
+    private final LongAdder sweeps = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    @Scheduled(fixedDelayString = "${app.order-hold.sweep-interval-ms:60000}",
+            initialDelayString = "${app.order-hold.sweep-interval-ms:60000}")
+    public int sweepExpiredHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        Object[] last = null;
+        int count = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Object[]> rows = last == null
+                    ? orderRepository.findExpiredHoldsFirstPage(Order.OrderStatus.pending, now, PageRequest.of(0, batchSize))
+                    : orderRepository.findExpiredHoldsAfter(Order.OrderStatus.pending, now,
+                            (LocalDateTime) last[1], (Integer) last[0], PageRequest.of(0, batchSize));
+            for (Object[] row : rows) {
+                Integer id = (Integer) row[0];
+                try {
+                    if (orderService.expireHold(id)) {
+                        count++;
+                    }
+                } catch (Exception e) {
+                    failures.increment();
+                    log.warn("결제 기한 만료 주문 취소 실패 (orderId={}): {}", id, e.getMessage());
+                }
+            }
+            if (rows.size() < batchSize) {
+                break;
+            }
+            last = rows.get(rows.size() - 1);
+        }
+
+        sweeps.increment();
+        expired.add(count);
+        if (count > 0) {
+            log.info("결제 기한 만료 주문 {}건 취소", count);
+        }
+        return count;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sweeps", sweeps.sum());
+        stats.put("expired", expired.sum());
+        stats.put("failures", failures.sum());
+        return stats;
+    }
+}
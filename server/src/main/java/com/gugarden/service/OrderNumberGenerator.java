@@ -0,0 +1,118 @@
+package com.gugarden.service;
+
+import com.gugarden.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 주문번호 생성기: GG + YYMMDD + 노드(1자) + 일중 순번(6자), 노드/순번은 Crockford base32.
+ * 순번은 "현재 시각(ms)과 직전 값 + 1 중 큰 값"이라 노드 안에서 단조 증가하고 발급 시 잠금이 없다.
+ * 시작할 때 이 노드가 마지막으로 저장한 주문번호에서 직전 값을 이어받으므로,
+ * 재시작 사이에 시계가 뒤로 가거나 직전 프로세스가 시각보다 앞서 발급했어도 번호가 겹치지 않는다.
+ * 노드 번호(app.order-number.node-id)는 서버마다 다르게 설정해야 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderNumberGenerator {
+
+    private static final char[] BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int PREFIX_LENGTH = 8;   // GG + YYMMDD
+    private static final int SEQUENCE_LENGTH = 6; // 32^6 > 하루 ms 수
+    private static final int LENGTH = PREFIX_LENGTH + 1 + SEQUENCE_LENGTH;
+
+    private record DayPrefix(long epochDay, char[] chars) {}
+
+    private final OrderRepository orderRepository;
+
+    @Value("${app.order-number.node-id:0}")
+    private int nodeId;
+
+    private final TimeZone zone = TimeZone.getDefault();
+    // 마지막으로 발급한 값 (로컬 시각 기준 epoch ms)
+    private final AtomicLong lastTick = new AtomicLong();
+    private volatile DayPrefix dayPrefix = new DayPrefix(Long.MIN_VALUE, null);
+
+    @PostConstruct
+    public void init() {
+        if (nodeId < 0 || nodeId >= BASE32.length) {
+            throw new IllegalStateException("app.order-number.node-id는 0~" + (BASE32.length - 1) + " 사이여야 합니다.");
+        }
+        // GG + YYMMDD(6) + 노드 + 순번(6) 형식만 (이전 형식 주문번호는 길이가 달라 제외됨)
+        String pattern = "GG______" + BASE32[nodeId] + "______";
+        orderRepository.findMaxOrderNumberLike(pattern)
+                .ifPresent(last -> lastTick.accumulateAndGet(decode(last), Math::max));
+    }
+
+    public String next() {
+        long now = System.currentTimeMillis();
+        long local = now + zone.getOffset(now);
+        long prev;
+        long tick;
+        do {
+            prev = lastTick.get();
+            tick = Math.max(prev + 1, local);
+        } while (!lastTick.compareAndSet(prev, tick));
+
+        long epochDay = Math.floorDiv(tick, MILLIS_PER_DAY);
+        long sequence = Math.floorMod(tick, MILLIS_PER_DAY);
+
+        char[] buf = new char[LENGTH];
+        System.arraycopy(prefix(epochDay), 0, buf, 0, PREFIX_LENGTH);
+        buf[PREFIX_LENGTH] = BASE32[nodeId];
+        for (int i = LENGTH - 1; i > PREFIX_LENGTH; i--) {
+            buf[i] = BASE32[(int) (sequence & 31)];
+            sequence >>>= 5;
+        }
+        return new String(buf);
+    }
+
+    // next()의 역변환: 주문번호 → 발급 당시 tick (형식이 맞지 않으면 0)
+    private static long decode(String orderNumber) {
+        try {
+            LocalDate date = LocalDate.of(2000 + Integer.parseInt(orderNumber.substring(2, 4)),
+                    Integer.parseInt(orderNumber.substring(4, 6)),
+                    Integer.parseInt(orderNumber.substring(6, 8)));
+            long sequence = 0;
+            for (int i = PREFIX_LENGTH + 1; i < LENGTH; i++) {
+                int digit = Arrays.binarySearch(BASE32, orderNumber.charAt(i));
+                if (digit < 0) {
+                    return 0;
+                }
+                sequence = (sequence << 5) | digit;
+            }
+            return date.toEpochDay() * MILLIS_PER_DAY + sequence;
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    // 날짜 부분은 하루에 한 번만 만든다
+    private char[] prefix(long epochDay) {
+        DayPrefix cached = dayPrefix;
+        if (cached.epochDay() != epochDay) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            char[] chars = new char[PREFIX_LENGTH];
+            chars[0] = 'G';
+            chars[1] = 'G';
+            putTwoDigits(chars, 2, date.getYear() % 100);
+            putTwoDigits(chars, 4, date.getMonthValue());
+            putTwoDigits(chars, 6, date.getDayOfMonth());
+            cached = new DayPrefix(epochDay, chars);
+            dayPrefix = cached;
+        }
+        return cached.chars();
+    }
+
+    private static void putTwoDigits(char[] chars, int offset, int value) {
+        chars[offset] = (char) ('0' + value / 10);
+        chars[offset + 1] = (char) ('0' + value % 10);
+    }
+}
@@ -2,15 +2,18 @@ package com.gugarden.service;
 
 import com.gugarden.dto.request.OrderRequest;
 import com.gugarden.entity.*;
+import com.gugarden.event.OrderStatusChangedEvent;
 import com.gugarden.exception.BadRequestException;
 import com.gugarden.exception.NotFoundException;
 import com.gugarden.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @Service
@@ -20,24 +23,22 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final CartItemRepository cartItemRepository;
-    private final ProductRepository productRepository;
-
-    private String generateOrderNumber() {
-        LocalDate now = LocalDate.now();
-        String year = now.format(DateTimeFormatter.ofPattern("yy"));
-        String month = now.format(DateTimeFormatter.ofPattern("MM"));
-        String day = now.format(DateTimeFormatter.ofPattern("dd"));
-        String random = UUID.randomUUID().toString().substring(0, 6).toUpperCase();
-        return "GG" + year + month + day + random;
-    }
+    private final InventoryService inventoryService;
+    private final PaymentTransactionService paymentTransactionService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 결제 대기 주문이 재고를 잡아두는 시간
+    @Value("${app.order-hold.ttl-minutes:30}")
+    private long holdTtlMinutes;
 
     public Map<String, Object> getOrders(Integer userId) {
         List<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        Map<Integer, Long> itemCounts = orderItemRepository.countByOrderIds(orders.stream().map(Order::getId).toList());
 
         List<Map<String, Object>> orderList = orders.stream().map(o -> {
-            long itemCount = orderItemRepository.countByOrderId(o.getId());
             Map<String, Object> map = toOrderMap(o);
-            map.put("item_count", itemCount);
+            map.put("item_count", itemCounts.getOrDefault(o.getId(), 0L));
             return map;
         }).toList();
 
@@ -67,7 +68,8 @@ public class OrderService {
         return Map.of("order", orderMap);
     }
 
-    @Transactional
+    // READ COMMITTED: 샤드 재고 탐색 시 조건에 맞지 않은 행의 잠금을 바로 풀도록 (MySQL 기본값 REPEATABLE READ는 커밋까지 유지)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Map<String, Object> createOrder(Integer userId, OrderRequest request) {
         if (request.getRecipientName() == null || request.getRecipientPhone() == null || request.getRecipientAddress() == null) {
             throw new BadRequestException("배송 정보를 입력해주세요.");
@@ -79,10 +81,10 @@ public class OrderService {
             throw new BadRequestException("장바구니가 비어있습니다.");
         }
 
-        // 재고 확인
+        // 재고 확인 (1차: 조회 시점 재고, 최종 판단은 조건부 차감 결과 — 샤드 상품의 stock은 표시용이라 제외)
         for (CartItem ci : cartItems) {
             Product p = ci.getProduct();
-            if (p.getStock() < ci.getQuantity()) {
+            if (p.getStockShards() == 0 && p.getStock() < ci.getQuantity()) {
                 throw new BadRequestException(p.getName() + "의 재고가 부족합니다. (재고: " + p.getStock() + "개)");
             }
         }
@@ -97,7 +99,7 @@ public class OrderService {
         int shippingFee = totalAmount >= 50000 ? 0 : 3000;
 
         // 주문 생성
-        String orderNumber = generateOrderNumber();
+        String orderNumber = orderNumberGenerator.next();
         Order order = Order.builder()
                 .user(User.builder().id(userId).build())
                 .orderNumber(orderNumber)
@@ -110,26 +112,32 @@ public class OrderService {
                 .recipientZipcode(request.getRecipientZipcode())
                 .memo(request.getMemo())
                 .paymentMethod(request.getPaymentMethod())
+                .holdExpiresAt(LocalDateTime.now().plusMinutes(holdTtlMinutes))
                 .build();
 
         orderRepository.save(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.created(order));
 
-        // 주문 상품 추가 및 재고 차감
+        // 재고 차감을 주문 상품 INSERT보다 먼저 — order_items의 상품 FK 검사가 products 행에 공유 잠금을 걸어,
+        // 순서가 반대면 같은 상품을 주문한 두 트랜잭션이 서로의 공유 잠금 때문에 차감(배타 잠금)을 못 하고 교착 상태가 된다.
+        // 동시 주문으로 재고가 먼저 소진되면 예외로 트랜잭션 전체(주문/차감된 재고)를 롤백
+        inventoryService.reserve(cartItems);
+
+        // 주문 상품 추가 — 상품 수와 관계없이 INSERT 1회 (재고 차감도 UPDATE 1회, 샤드 상품 제외)
+        List<OrderItem> orderItems = new ArrayList<>();
         for (CartItem ci : cartItems) {
             Product p = ci.getProduct();
             int price = p.getSalePrice() != null ? p.getSalePrice() : p.getPrice();
 
-            OrderItem orderItem = OrderItem.builder()
+            orderItems.add(OrderItem.builder()
                     .order(order)
                     .product(p)
                     .productName(p.getName())
                     .productPrice(price)
                     .quantity(ci.getQuantity())
-                    .build();
-            orderItemRepository.save(orderItem);
-
-            productRepository.decreaseStock(p.getId(), ci.getQuantity());
+                    .build());
         }
+        orderItemRepository.insertAll(orderItems);
 
         // 장바구니 비우기
         cartItemRepository.deleteByUserId(userId);
@@ -139,30 +147,57 @@ public class OrderService {
         result.put("orderId", order.getId());
         result.put("orderNumber", orderNumber);
         result.put("totalAmount", totalAmount + shippingFee);
+        result.put("holdExpiresAt", order.getHoldExpiresAt());
         return result;
     }
 
     @Transactional
     public Map<String, String> cancelOrder(Integer orderId, Integer userId) {
-        Order order = orderRepository.findByIdAndUserId(orderId, userId)
+        Order order = orderRepository.findByIdAndUserIdForUpdate(orderId, userId)
                 .orElseThrow(() -> new NotFoundException("주문을 찾을 수 없습니다."));
 
         if (order.getStatus() != Order.OrderStatus.pending && order.getStatus() != Order.OrderStatus.paid) {
             throw new BadRequestException("취소할 수 없는 주문입니다.");
         }
+        if (paymentTransactionService.isInFlight(orderId)) {
+            throw new BadRequestException("결제 처리 중인 주문입니다. 잠시 후 다시 시도해주세요.");
+        }
 
         // 재고 복구
-        List<OrderItem> items = orderItemRepository.findByOrderIdWithProduct(orderId);
-        for (OrderItem item : items) {
-            productRepository.increaseStock(item.getProduct().getId(), item.getQuantity());
-        }
+        inventoryService.release(orderItemRepository.findByOrderIdWithProduct(orderId));
 
+        Order.OrderStatus previous = order.getStatus();
         order.setStatus(Order.OrderStatus.cancelled);
         orderRepository.save(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.changed(order, previous));
 
         return Map.of("message", "주문이 취소되었습니다.");
     }
 
+    /**
+     * 결제 기한이 지난 결제 대기 주문을 취소하고 재고를 되돌린다.
+     * 행을 잠근 뒤 상태와 기한을 다시 확인하므로, 그 사이 결제가 승인된 주문은 건드리지 않는다.
+     */
+    @Transactional
+    public boolean expireHold(Integer orderId) {
+        Order order = orderRepository.findByIdForUpdate(orderId).orElse(null);
+        if (order == null || order.getStatus() != Order.OrderStatus.pending
+                || order.getHoldExpiresAt() == null || order.getHoldExpiresAt().isAfter(LocalDateTime.now())) {
+            return false;
+        }
+        // PG 승인 결과를 기다리는 중이면 결과가 반영될 때까지 둔다
+        if (paymentTransactionService.isInFlight(orderId)) {
+            return false;
+        }
+
+        inventoryService.release(orderItemRepository.findByOrderIdWithProduct(orderId));
+
+        order.setStatus(Order.OrderStatus.cancelled);
+        orderRepository.save(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.changed(order, Order.OrderStatus.pending));
+        return true;
+    }
+
     private Map<String, Object> toOrderMap(Order o) {
         Map<String, Object> map = new LinkedHashMap<>();
         map.put("id", o.getId());
@@ -180,6 +215,7 @@ public class OrderService {
         map.put("payment_method", o.getPaymentMethod());
         map.put("payment_key", o.getPaymentKey());
         map.put("paid_at", o.getPaidAt());
+        map.put("hold_expires_at", o.getHoldExpiresAt());
         map.put("created_at", o.getCreatedAt());
         map.put("updated_at", o.getUpdatedAt());
         return map;
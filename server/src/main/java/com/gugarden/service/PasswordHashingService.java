@@ -0,0 +1,187 @@
+package com.gugarden.service;
+
+import com.gugarden.config.ExpiryWheel;
+import com.gugarden.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 비밀번호 해싱/검증 (BCrypt).
+ * CPU를 많이 쓰는 해싱을 요청 스레드가 아닌 전용 스레드(코어 수)에서 실행하고 대기열 길이를 제한해,
+ * 로그인이 몰려도 다른 API를 처리할 CPU가 남게 한다. 대기열이 가득 차면 바로 429.
+ * 해싱 전에 IP별 요청 수와 계정별 검증 실패 수를 제한해 무차별 대입 시도가 대기열을 차지하지 못하게 한다.
+ * 계정 한도는 실패만 세므로, 남의 계정으로 요청을 보내는 것만으로는 그 계정의 로그인을 막을 수 없다.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private static final String TOO_MANY = "요청이 많습니다. 잠시 후 다시 시도해주세요.";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ExpiryWheel expiryWheel;
+    private final ThreadPoolExecutor executor;
+    private final long waitMs;
+    private final long windowMillis;
+    private final int perIp;
+    private final int perAccount;
+
+    // "ip:..." → 현재 구간 요청 수, "account:..." → 현재 구간 검증 실패 수 (구간이 끝나면 만료 휠이 제거)
+    private final ConcurrentHashMap<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+    private final LongAdder hashed = new LongAdder();
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder upgraded = new LongAdder();
+    private final LongAdder queueRejected = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder, ExpiryWheel expiryWheel,
+                                  @Value("${app.password-hashing.threads:0}") int threads,
+                                  @Value("${app.password-hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.password-hashing.wait-ms:5000}") long waitMs,
+                                  @Value("${app.password-hashing.window-seconds:60}") long windowSeconds,
+                                  @Value("${app.password-hashing.per-ip:30}") int perIp,
+                                  @Value("${app.password-hashing.per-account:10}") int perAccount) {
+        this.passwordEncoder = passwordEncoder;
+        this.expiryWheel = expiryWheel;
+        this.waitMs = waitMs;
+        this.windowMillis = windowSeconds * 1000;
+        this.perIp = perIp;
+        this.perAccount = perAccount;
+
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "password-hash-" + seq.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 요청 수 제한. IP는 요청마다 세고, 계정은 recordFailure로 기록된 실패 수만 확인한다. account가 null이면 IP만 본다.
+     */
+    public void admit(String clientIp, String account) {
+        if (clientIp != null && count("ip:" + clientIp) > perIp) {
+            throttled.increment();
+            throw new TooManyRequestsException(TOO_MANY, windowMillis / 1000);
+        }
+        if (account != null) {
+            AtomicInteger failures = attempts.get(accountKey(account));
+            if (failures != null && failures.get() >= perAccount) {
+                throttled.increment();
+                throw new TooManyRequestsException(TOO_MANY, windowMillis / 1000);
+            }
+        }
+    }
+
+    /**
+     * 계정의 비밀번호 검증 실패를 기록한다. 없는 계정도 똑같이 세어 계정 존재 여부가 드러나지 않게 한다.
+     */
+    public void recordFailure(String account) {
+        count(accountKey(account));
+    }
+
+    private static String accountKey(String account) {
+        return "account:" + account.toLowerCase(Locale.ROOT);
+    }
+
+    private int count(String key) {
+        AtomicInteger counter = attempts.computeIfAbsent(key, k -> {
+            AtomicInteger created = new AtomicInteger();
+            expiryWheel.schedule(System.currentTimeMillis() + windowMillis, () -> attempts.remove(k, created));
+            return created;
+        });
+        return counter.incrementAndGet();
+    }
+
+    public String encode(String rawPassword) {
+        String encoded = run(() -> passwordEncoder.encode(rawPassword));
+        hashed.increment();
+        return encoded;
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        boolean matched = run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+        verified.increment();
+        return matched;
+    }
+
+    /**
+     * 저장된 해시의 비용이 설정값보다 낮으면 true — 로그인 성공 시 새 비용으로 다시 해싱한다.
+     */
+    public boolean needsUpgrade(String encodedPassword) {
+        return encodedPassword != null && passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    public String upgrade(String rawPassword) {
+        upgraded.increment();
+        return encode(rawPassword);
+    }
+
+    private <T> T run(Supplier<T> task) {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task::get);
+        } catch (RejectedExecutionException e) {
+            queueRejected.increment();
+            throw new TooManyRequestsException(TOO_MANY, 1);
+        }
+        try {
+            return future.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            queueRejected.increment();
+            throw new TooManyRequestsException(TOO_MANY, 1);
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            totalMillis.add((System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long operations = hashed.sum() + verified.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("hashed", hashed.sum());
+        stats.put("verified", verified.sum());
+        stats.put("upgraded", upgraded.sum());
+        stats.put("queueRejected", queueRejected.sum());
+        stats.put("throttled", throttled.sum());
+        stats.put("trackedKeys", attempts.size());
+        stats.put("avgMillis", operations == 0 ? 0 : totalMillis.sum() / operations);
+        return stats;
+    }
+}
@@ -1,20 +1,29 @@
 package com.gugarden.service;
 
+import com.gugarden.config.OutboundHttpGuard;
 import com.gugarden.entity.Order;
 import com.gugarden.entity.OrderItem;
+import com.gugarden.entity.PaymentTransaction;
+import com.gugarden.event.OrderStatusChangedEvent;
 import com.gugarden.exception.BadRequestException;
+import com.gugarden.exception.ConflictException;
 import com.gugarden.exception.NotFoundException;
 import com.gugarden.repository.OrderItemRepository;
 import com.gugarden.repository.OrderRepository;
-import com.gugarden.repository.ProductRepository;
+import com.gugarden.repository.PaymentTransactionRepository;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.*;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
@@ -28,8 +37,12 @@ public class PaymentService {
 
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
-    private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+    private final PaymentTransactionService paymentTransactionService;
+    private final PaymentTransactionRepository paymentTransactionRepository;
     private final Environment environment;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RestTemplate outboundRestTemplate;
 
     @Value("${app.naverpay.client-id:}")
     private String naverClientId;
@@ -46,7 +59,19 @@ public class PaymentService {
     @Value("${app.toss.secret-key:}")
     private String tossSecretKey;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${app.toss.api-url:https://api.tosspayments.com}")
+    private String tossApiUrl;
+
+    // 이 시간이 지나도 requested로 남은 결제 기록을 복구 대상으로 본다
+    @Value("${app.payment.recovery-after-seconds:60}")
+    private long recoveryAfterSeconds;
+
+    // 토스가 아직 승인하지 않은(IN_PROGRESS/READY) 승인 기록을 이 시간이 지나면 실패로 마무리한다
+    @Value("${app.payment.recovery-give-up-minutes:30}")
+    private long recoveryGiveUpMinutes;
+
+    private enum Outcome { SUCCESS, FAILURE, UNKNOWN }
+
 
     private boolean isProductionProfile() {
         return Arrays.asList(environment.getActiveProfiles()).contains("prod");
@@ -94,15 +119,14 @@ public class PaymentService {
 
     @Transactional
     public Map<String, Object> approveNaverPay(Integer orderId, String paymentId, Integer userId) {
-        Order order = orderRepository.findByIdAndUserId(orderId, userId)
-                .orElseThrow(() -> new NotFoundException("주문을 찾을 수 없습니다."));
+        Order order = paymentTransactionService.lockPayableOrder(orderId, userId);
 
         if (naverClientId == null || naverClientId.isEmpty()) {
             if (isProductionProfile()) {
                 throw new BadRequestException("결제 서비스가 설정되지 않았습니다. 관리자에게 문의하세요.");
             }
             log.warn("네이버페이 테스트 승인: API 키 미설정 (orderId={})", orderId);
-            order.setStatus(Order.OrderStatus.paid);
+            changeStatus(order, Order.OrderStatus.paid);
             order.setPaidAt(LocalDateTime.now());
             orderRepository.save(order);
 
@@ -116,7 +140,7 @@ public class PaymentService {
         }
 
         // 실제 네이버페이 승인 API 호출
-        order.setStatus(Order.OrderStatus.paid);
+        changeStatus(order, Order.OrderStatus.paid);
         order.setPaymentKey(paymentId);
         order.setPaidAt(LocalDateTime.now());
         orderRepository.save(order);
@@ -141,7 +165,7 @@ public class PaymentService {
         // 재고 복구
         restoreStock(orderId);
 
-        order.setStatus(Order.OrderStatus.cancelled);
+        changeStatus(order, Order.OrderStatus.cancelled);
         orderRepository.save(order);
 
         Map<String, Object> result = new HashMap<>();
@@ -199,25 +223,19 @@ public class PaymentService {
         return result;
     }
 
-    @Transactional
+    /**
+     * 토스 결제 승인. DB 작업(요청 기록 → 결과 반영)은 각각 짧은 트랜잭션으로 나누고
+     * 토스 API 호출은 트랜잭션 밖에서 해, PG 응답이 느려도 DB 커넥션을 붙잡지 않는다.
+     */
     public Map<String, Object> confirmToss(Integer orderId, String paymentKey, Integer amount, Integer userId) {
-        Order order = orderRepository.findByIdAndUserId(orderId, userId)
-                .orElseThrow(() -> new NotFoundException("주문을 찾을 수 없습니다."));
-
-        if (!order.getTotalAmount().equals(amount)) {
-            throw new BadRequestException("결제 금액이 일치하지 않습니다.");
-        }
-
         if (tossSecretKey == null || tossSecretKey.isEmpty()) {
             if (isProductionProfile()) {
                 throw new BadRequestException("결제 서비스가 설정되지 않았습니다. 관리자에게 문의하세요.");
             }
             log.warn("토스페이 테스트 승인: API 키 미설정 (orderId={})", orderId);
-            order.setStatus(Order.OrderStatus.paid);
-            order.setPaymentMethod("toss");
-            order.setPaymentKey(paymentKey != null ? paymentKey : "test_payment");
-            order.setPaidAt(LocalDateTime.now());
-            orderRepository.save(order);
+            PaymentTransaction tx = paymentTransactionService.beginConfirm(orderId, userId,
+                    paymentKey != null ? paymentKey : "test_payment", amount);
+            Order order = paymentTransactionService.complete(tx.getId(), true);
 
             Map<String, Object> result = new HashMap<>();
             result.put("success", true);
@@ -228,63 +246,43 @@ public class PaymentService {
             return result;
         }
 
-        // 실제 토스 API 호출
-        String encoded = Base64.getEncoder().encodeToString((tossSecretKey + ":").getBytes());
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Basic " + encoded);
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        PaymentTransaction tx = paymentTransactionService.beginConfirm(orderId, userId, paymentKey, amount);
+        Order order = orderRepository.findById(orderId).orElseThrow();
 
+        // 실제 토스 API 호출 (트랜잭션 밖)
         Map<String, Object> body = new HashMap<>();
         body.put("paymentKey", paymentKey);
         body.put("orderId", order.getOrderNumber());
         body.put("amount", amount);
+        Outcome outcome = callToss(HttpMethod.POST, "/v1/payments/confirm", body, "DONE");
 
-        try {
-            ResponseEntity<Map> response = restTemplate.exchange(
-                    "https://api.tosspayments.com/v1/payments/confirm",
-                    HttpMethod.POST,
-                    new HttpEntity<>(body, headers),
-                    Map.class
-            );
-
-            if (response.getBody() != null && "DONE".equals(response.getBody().get("status"))) {
-                order.setStatus(Order.OrderStatus.paid);
-                order.setPaymentMethod("toss");
-                order.setPaymentKey(paymentKey);
-                order.setPaidAt(LocalDateTime.now());
-                orderRepository.save(order);
-
-                Map<String, Object> result = new HashMap<>();
-                result.put("success", true);
-                result.put("orderId", orderId);
-                result.put("orderNumber", order.getOrderNumber());
-                result.put("paymentKey", paymentKey);
-                return result;
-            }
-        } catch (Exception e) {
+        // 승인 여부를 모르는 상태 — 거절로 오해하지 않도록 409 (복구 작업이 결과를 반영한다)
+        if (outcome == Outcome.UNKNOWN) {
+            throw new ConflictException("결제 결과를 확인하고 있습니다. 잠시 후 주문 상태를 확인해주세요.");
+        }
+        paymentTransactionService.complete(tx.getId(), outcome == Outcome.SUCCESS);
+        if (outcome == Outcome.FAILURE) {
             throw new BadRequestException("결제 승인에 실패했습니다.");
         }
 
-        throw new BadRequestException("결제 승인에 실패했습니다.");
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("orderId", orderId);
+        result.put("orderNumber", order.getOrderNumber());
+        result.put("paymentKey", paymentKey);
+        return result;
     }
 
-    @Transactional
     public Map<String, Object> cancelToss(Integer orderId, String cancelReason, Integer userId) {
-        Order order = orderRepository.findByIdAndUserId(orderId, userId)
-                .orElseThrow(() -> new NotFoundException("주문을 찾을 수 없습니다."));
-
-        if (order.getStatus() != Order.OrderStatus.paid) {
-            throw new BadRequestException("결제된 주문만 취소할 수 있습니다.");
-        }
+        String reason = cancelReason != null ? cancelReason : "고객 요청에 의한 취소";
 
         if (tossSecretKey == null || tossSecretKey.isEmpty()) {
             if (isProductionProfile()) {
                 throw new BadRequestException("결제 서비스가 설정되지 않았습니다. 관리자에게 문의하세요.");
             }
             log.warn("토스페이 테스트 취소: API 키 미설정 (orderId={})", orderId);
-            restoreStock(orderId);
-            order.setStatus(Order.OrderStatus.cancelled);
-            orderRepository.save(order);
+            PaymentTransaction tx = paymentTransactionService.beginCancel(orderId, userId, reason);
+            paymentTransactionService.complete(tx.getId(), true);
 
             Map<String, Object> result = new HashMap<>();
             result.put("success", true);
@@ -293,32 +291,118 @@ public class PaymentService {
             return result;
         }
 
-        // 실제 토스 취소 API
-        String encoded = Base64.getEncoder().encodeToString((tossSecretKey + ":").getBytes());
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Basic " + encoded);
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        PaymentTransaction tx = paymentTransactionService.beginCancel(orderId, userId, reason);
 
-        Map<String, Object> body = Map.of("cancelReason", cancelReason != null ? cancelReason : "고객 요청에 의한 취소");
+        // 실제 토스 취소 API (트랜잭션 밖)
+        Outcome outcome = callToss(HttpMethod.POST, "/v1/payments/" + tx.getPaymentKey() + "/cancel",
+                Map.of("cancelReason", reason), "CANCELED");
+
+        if (outcome == Outcome.UNKNOWN) {
+            throw new ConflictException("취소 결과를 확인하고 있습니다. 잠시 후 주문 상태를 확인해주세요.");
+        }
+        paymentTransactionService.complete(tx.getId(), outcome == Outcome.SUCCESS);
+        if (outcome == Outcome.FAILURE) {
+            throw new BadRequestException("결제 취소에 실패했습니다.");
+        }
+        return Map.of("success", true, "message", "결제가 취소되었습니다.");
+    }
+
+    /*
+     * 토스 API 호출 결과 분류.
+     * 응답 status가 기대값이면 SUCCESS, 다른 값이거나 4xx면 FAILURE,
+     * 호출 보호(서킷/동시 호출 한도)로 보내지 않은 요청도 FAILURE,
+     * 타임아웃/연결 오류/5xx는 토스에서 처리됐는지 알 수 없으므로 UNKNOWN — 기록을 requested로 두고 복구 작업이 조회해 마무리한다.
+     */
+    private Outcome callToss(HttpMethod method, String path, Map<String, Object> body, String expectedStatus) {
+        HttpHeaders headers = tossAuthHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
 
         try {
-            restTemplate.exchange(
-                    "https://api.tosspayments.com/v1/payments/" + order.getPaymentKey() + "/cancel",
-                    HttpMethod.POST,
-                    new HttpEntity<>(body, headers),
-                    Map.class
-            );
-
-            restoreStock(orderId);
-            order.setStatus(Order.OrderStatus.cancelled);
-            orderRepository.save(order);
+            ResponseEntity<Map> response = outboundRestTemplate.exchange(tossApiUrl + path, method,
+                    new HttpEntity<>(body, headers), Map.class);
+            return response.getBody() != null && expectedStatus.equals(response.getBody().get("status"))
+                    ? Outcome.SUCCESS : Outcome.FAILURE;
+        } catch (OutboundHttpGuard.RejectedException e) {
+            // 토스로 전송하지 않음
+            log.warn("토스 API 호출 거절 {}: {}", path, e.getMessage());
+            return Outcome.FAILURE;
+        } catch (HttpStatusCodeException e) {
+            log.warn("토스 API 오류 {} {}: {}", path, e.getStatusCode(), e.getResponseBodyAsString());
+            return e.getStatusCode().is4xxClientError() ? Outcome.FAILURE : Outcome.UNKNOWN;
+        } catch (RestClientException e) {
+            log.warn("토스 API 호출 실패 {}: {}", path, e.getMessage());
+            return Outcome.UNKNOWN;
+        }
+    }
 
-            return Map.of("success", true, "message", "결제가 취소되었습니다.");
-        } catch (Exception e) {
-            throw new BadRequestException("결제 취소에 실패했습니다.");
+    /**
+     * 결과를 모르는 채 남은 결제 기록(requested)을 토스에 조회해 마무리한다.
+     * 서버가 PG 호출 도중 종료됐거나 응답이 유실된 경우.
+     * 승인 요청이 토스에 닿지 않아 결제가 아직 승인 전이면 같은 paymentKey로 승인을 다시 요청하고,
+     * 그래도 recovery-give-up-minutes가 지나도록 승인되지 않으면 실패로 마무리해 주문의 재시도/취소/홀드 만료를 막지 않는다.
+     */
+    @Scheduled(fixedDelayString = "${app.payment.recovery-interval-ms:60000}",
+            initialDelayString = "${app.payment.recovery-interval-ms:60000}")
+    public void recoverPendingTransactions() {
+        if (tossSecretKey == null || tossSecretKey.isEmpty()) {
+            return;
+        }
+        List<PaymentTransaction> stale = paymentTransactionRepository.findByStatusAndCreatedAtBeforeOrderById(
+                PaymentTransaction.Status.requested, LocalDateTime.now().minusSeconds(recoveryAfterSeconds),
+                PageRequest.of(0, 100));
+        for (PaymentTransaction tx : stale) {
+            String expected = tx.getType() == PaymentTransaction.Type.confirm ? "DONE" : "CANCELED";
+            try {
+                ResponseEntity<Map> response = outboundRestTemplate.exchange(tossApiUrl + "/v1/payments/" + tx.getPaymentKey(),
+                        HttpMethod.GET, new HttpEntity<>(tossAuthHeaders()), Map.class);
+                Object status = response.getBody() != null ? response.getBody().get("status") : null;
+                if ("IN_PROGRESS".equals(status) || "READY".equals(status)) {
+                    retryConfirm(tx);
+                    continue;
+                }
+                paymentTransactionService.complete(tx.getId(), expected.equals(status));
+                log.info("결제 기록 복구: tx={} order={} {} → {}", tx.getId(), tx.getOrderId(), tx.getType(), status);
+            } catch (HttpStatusCodeException e) {
+                // 승인 요청이 토스에 도달하지 않은 경우 (결제 없음)
+                if (e.getStatusCode().value() == 404 && tx.getType() == PaymentTransaction.Type.confirm) {
+                    paymentTransactionService.complete(tx.getId(), false);
+                } else {
+                    log.warn("결제 기록 복구 실패: tx={} {}", tx.getId(), e.getStatusCode());
+                }
+            } catch (RestClientException e) {
+                log.warn("결제 기록 복구 실패: tx={} {}", tx.getId(), e.getMessage());
+            }
+        }
+    }
+
+    // 토스는 paymentKey당 한 번만 승인하므로 같은 요청을 다시 보내도 이중 결제가 되지 않는다
+    private void retryConfirm(PaymentTransaction tx) {
+        if (tx.getType() == PaymentTransaction.Type.confirm) {
+            String orderNumber = orderRepository.findById(tx.getOrderId()).map(Order::getOrderNumber).orElse(null);
+            Map<String, Object> body = new HashMap<>();
+            body.put("paymentKey", tx.getPaymentKey());
+            body.put("orderId", orderNumber);
+            body.put("amount", tx.getAmount());
+            Outcome outcome = callToss(HttpMethod.POST, "/v1/payments/confirm", body, "DONE");
+            if (outcome != Outcome.UNKNOWN) {
+                paymentTransactionService.complete(tx.getId(), outcome == Outcome.SUCCESS);
+                log.info("결제 승인 재요청: tx={} order={} → {}", tx.getId(), tx.getOrderId(), outcome);
+                return;
+            }
+        }
+        if (tx.getCreatedAt() != null && tx.getCreatedAt().isBefore(LocalDateTime.now().minusMinutes(recoveryGiveUpMinutes))) {
+            paymentTransactionService.complete(tx.getId(), false);
+            log.warn("결제 기록 복구 포기: tx={} order={} {} — {}분 넘게 승인되지 않음",
+                    tx.getId(), tx.getOrderId(), tx.getType(), recoveryGiveUpMinutes);
         }
     }
 
+    private HttpHeaders tossAuthHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Basic " + Base64.getEncoder().encodeToString((tossSecretKey + ":").getBytes()));
+        return headers;
+    }
+
     public Map<String, Object> getPaymentStatus(Integer orderId, Integer userId) {
         Order order = orderRepository.findByIdAndUserId(orderId, userId)
                 .orElseThrow(() -> new NotFoundException("주문을 찾을 수 없습니다."));
@@ -336,10 +420,14 @@ public class PaymentService {
         return result;
     }
 
+    // 상태 변경 후 대시보드 집계용 이벤트 발행 (커밋 이후 반영)
+    private void changeStatus(Order order, Order.OrderStatus status) {
+        Order.OrderStatus previous = order.getStatus();
+        order.setStatus(status);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.changed(order, previous));
+    }
+
     private void restoreStock(Integer orderId) {
-        List<OrderItem> items = orderItemRepository.findByOrderIdWithProduct(orderId);
-        for (OrderItem item : items) {
-            productRepository.increaseStock(item.getProduct().getId(), item.getQuantity());
-        }
+        inventoryService.release(orderItemRepository.findByOrderIdWithProduct(orderId));
     }
 }
@@ -0,0 +1,214 @@
+package com.gugarden.service;
+
+import com.gugarden.entity.Order;
+import com.gugarden.entity.PaymentTransaction;
+import com.gugarden.event.OrderStatusChangedEvent;
+import com.gugarden.exception.BadRequestException;
+import com.gugarden.exception.ConflictException;
+import com.gugarden.exception.NotFoundException;
+import com.gugarden.repository.OrderItemRepository;
+import com.gugarden.repository.OrderRepository;
+import com.gugarden.repository.PaymentTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 결제 상태 전이. PG 호출 앞뒤의 짧은 트랜잭션만 담당하고, PG 호출 자체는 PaymentService가 트랜잭션 밖에서 한다.
+ * begin*: 주문 행을 잠가 상태를 확인하고 payment_transactions에 requested 기록 후 바로 커밋
+ * complete*: 결과에 따라 주문 상태/재고를 반영하고 기록을 succeeded/failed로 마무리
+ * requested 기록이 있는 주문은 다른 결제 요청, 사용자 취소, 결제 기한 만료 처리에서 제외된다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentTransactionService {
+
+    /** 결제사 웹훅 통지 (주문번호 기준). */
+    public record Notification(String provider, String orderNumber, String paymentKey, Kind kind, Integer amount) {
+        public enum Kind { paid, cancelled }
+    }
+
+    private final PaymentTransactionRepository paymentTransactionRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final InventoryService inventoryService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 결제 승인 대상 주문을 잠가서 조회한다. 홀드 만료 처리와 같은 행을 잠그므로 둘 중 하나만 반영되고,
+     * 기한이 지나 이미 취소된 주문은 승인하지 않는다 (재고가 이미 풀렸으므로).
+     */
+    @Transactional
+    public Order lockPayableOrder(Integer orderId, Integer userId) {
+        Order order = orderRepository.findByIdAndUserIdForUpdate(orderId, userId)
+                .orElseThrow(() -> new NotFoundException("주문을 찾을 수 없습니다."));
+
+        if (order.getStatus() == Order.OrderStatus.cancelled) {
+            throw new BadRequestException("결제 기한이 지나 취소된 주문입니다.");
+        }
+        if (order.getStatus() != Order.OrderStatus.pending) {
+            throw new BadRequestException("이미 처리된 주문입니다.");
+        }
+        checkNotInFlight(orderId);
+        return order;
+    }
+
+    @Transactional
+    public PaymentTransaction beginConfirm(Integer orderId, Integer userId, String paymentKey, Integer amount) {
+        Order order = lockPayableOrder(orderId, userId);
+        if (!order.getTotalAmount().equals(amount)) {
+            throw new BadRequestException("결제 금액이 일치하지 않습니다.");
+        }
+
+        return paymentTransactionRepository.save(PaymentTransaction.builder()
+                .orderId(orderId)
+                .type(PaymentTransaction.Type.confirm)
+                .paymentKey(paymentKey)
+                .amount(amount)
+                .build());
+    }
+
+    @Transactional
+    public PaymentTransaction beginCancel(Integer orderId, Integer userId, String cancelReason) {
+        Order order = orderRepository.findByIdAndUserIdForUpdate(orderId, userId)
+                .orElseThrow(() -> new NotFoundException("주문을 찾을 수 없습니다."));
+
+        if (order.getStatus() != Order.OrderStatus.paid) {
+            throw new BadRequestException("결제된 주문만 취소할 수 있습니다.");
+        }
+        checkNotInFlight(orderId);
+
+        return paymentTransactionRepository.save(PaymentTransaction.builder()
+                .orderId(orderId)
+                .type(PaymentTransaction.Type.cancel)
+                .paymentKey(order.getPaymentKey())
+                .amount(order.getTotalAmount())
+                .cancelReason(cancelReason)
+                .build());
+    }
+
+    private void checkNotInFlight(Integer orderId) {
+        if (isInFlight(orderId)) {
+            throw new ConflictException("결제 처리 중인 주문입니다. 잠시 후 다시 시도해주세요.");
+        }
+    }
+
+    public boolean isInFlight(Integer orderId) {
+        return paymentTransactionRepository.existsByOrderIdAndStatus(orderId, PaymentTransaction.Status.requested);
+    }
+
+    /**
+     * PG 결과 반영. 이미 마무리된 기록이면 아무것도 하지 않는다 (복구 작업과 요청 스레드가 겹치는 경우).
+     */
+    @Transactional
+    public Order complete(Long transactionId, boolean success) {
+        PaymentTransaction tx = paymentTransactionRepository.findById(transactionId)
+                .orElseThrow(() -> new NotFoundException("결제 기록을 찾을 수 없습니다."));
+        Order order = orderRepository.findByIdForUpdate(tx.getOrderId())
+                .orElseThrow(() -> new NotFoundException("주문을 찾을 수 없습니다."));
+        if (tx.getStatus() != PaymentTransaction.Status.requested) {
+            return order;
+        }
+
+        tx.setStatus(success ? PaymentTransaction.Status.succeeded : PaymentTransaction.Status.failed);
+        // 웹훅이 먼저 반영했을 수 있으므로 상태를 확인하고 전이
+        if (success && tx.getType() == PaymentTransaction.Type.confirm && order.getStatus() == Order.OrderStatus.pending) {
+            markPaid(order, "toss", tx.getPaymentKey());
+        } else if (success && tx.getType() == PaymentTransaction.Type.cancel && order.getStatus() == Order.OrderStatus.paid) {
+            markCancelled(order);
+        }
+        return order;
+    }
+
+    /**
+     * 웹훅 반영 결과.
+     *
+     * @param changed 상태가 바뀐 주문 수
+     * @param settled 반영됐거나 다시 받아도 결과가 같은 통지 (이미 같은 상태, 취소된 주문의 결제, 금액 불일치)
+     *                — 주문이 없거나 아직 결제되지 않은 주문의 취소처럼 나중에 달라질 수 있는 통지는 빠진다
+     */
+    public record ApplyResult(int changed, List<Notification> settled) {}
+
+    /**
+     * 웹훅 통지를 한 트랜잭션에서 반영한다. 같은 주문/같은 상태의 중복 통지는 한 번만 반영하고,
+     * 현재 상태에서 유효한 전이(pending → paid, paid → cancelled)만 적용한다.
+     */
+    @Transactional
+    public ApplyResult applyNotifications(List<Notification> notifications) {
+        Map<String, Notification> unique = new LinkedHashMap<>();
+        for (Notification n : notifications) {
+            unique.putIfAbsent(n.orderNumber() + ":" + n.kind(), n);
+        }
+        Set<String> orderNumbers = unique.values().stream().map(Notification::orderNumber).collect(Collectors.toSet());
+        Map<String, Order> orders = orderRepository.findByOrderNumberInForUpdate(orderNumbers).stream()
+                .collect(Collectors.toMap(Order::getOrderNumber, o -> o));
+
+        int changed = 0;
+        Set<String> settledKeys = new HashSet<>();
+        for (Map.Entry<String, Notification> entry : unique.entrySet()) {
+            Notification n = entry.getValue();
+            Order order = orders.get(n.orderNumber());
+            if (order == null) {
+                log.warn("웹훅 주문 없음: {} {}", n.provider(), n.orderNumber());
+                continue;
+            }
+            if (n.kind() == Notification.Kind.paid) {
+                if (order.getStatus() == Order.OrderStatus.cancelled) {
+                    log.warn("이미 취소된 주문의 결제 완료 통지 — 환불 확인 필요: {} {} {}", n.provider(), n.orderNumber(), n.paymentKey());
+                } else if (order.getStatus() == Order.OrderStatus.pending) {
+                    if (n.amount() != null && !n.amount().equals(order.getTotalAmount())) {
+                        log.warn("웹훅 결제 금액 불일치: {} {} (주문 {}, 통지 {})", n.provider(), n.orderNumber(), order.getTotalAmount(), n.amount());
+                    } else {
+                        markPaid(order, n.provider(), n.paymentKey());
+                        changed++;
+                    }
+                }
+                settledKeys.add(entry.getKey());
+            } else if (order.getStatus() == Order.OrderStatus.paid) {
+                markCancelled(order);
+                changed++;
+                settledKeys.add(entry.getKey());
+            } else if (order.getStatus() == Order.OrderStatus.cancelled) {
+                settledKeys.add(entry.getKey());
+            }
+        }
+        List<Notification> settled = notifications.stream()
+                .filter(n -> settledKeys.contains(n.orderNumber() + ":" + n.kind()))
+                .toList();
+        return new ApplyResult(changed, settled);
+    }
+
+    @Transactional
+    public void markPaid(Order order, String paymentMethod, String paymentKey) {
+        Order.OrderStatus previous = order.getStatus();
+        order.setStatus(Order.OrderStatus.paid);
+        if (paymentMethod != null) {
+            order.setPaymentMethod(paymentMethod);
+        }
+        order.setPaymentKey(paymentKey);
+        order.setPaidAt(LocalDateTime.now());
+        orderRepository.save(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.changed(order, previous));
+    }
+
+    // 재고 복구 후 취소 상태로
+    @Transactional
+    public void markCancelled(Order order) {
+        inventoryService.release(orderItemRepository.findByOrderIdWithProduct(order.getId()));
+        Order.OrderStatus previous = order.getStatus();
+        order.setStatus(Order.OrderStatus.cancelled);
+        orderRepository.save(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.changed(order, previous));
+    }
+}
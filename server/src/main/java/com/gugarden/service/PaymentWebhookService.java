@@ -0,0 +1,265 @@
+package com.gugarden.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gugarden.exception.NotFoundException;
+import com.gugarden.exception.UnauthorizedException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 결제사(토스, 네이버페이) 웹훅 수신.
+ * 요청 스레드는 서명만 확인하고 본문을 큐에 넣은 뒤 바로 응답하고,
+ * 워커 스레드가 큐를 배치로 꺼내 파싱/중복 제거 후 한 트랜잭션으로 주문 상태에 반영한다.
+ * 큐가 가득 차면 503을 돌려 결제사가 나중에 다시 보내도록 한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentWebhookService {
+
+    public static final String SIGNATURE_HEADER = "X-Webhook-Signature";
+
+    private static final Set<String> PROVIDERS = Set.of("toss", "naverpay");
+
+    private record Received(String provider, String body) {}
+
+    private final PaymentTransactionService paymentTransactionService;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+
+    // HMAC-SHA256 서명 키 — 비어 있으면 개발 환경에서만 서명 없이 받는다
+    @Value("${app.payment.webhook.secret:}")
+    private String secret;
+
+    @Value("${app.payment.webhook.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.payment.webhook.workers:2}")
+    private int workerCount;
+
+    @Value("${app.payment.webhook.batch-size:100}")
+    private int batchSize;
+
+    // 최근 반영한 통지 키 수 (결제사 재전송 중복 제거용)
+    @Value("${app.payment.webhook.dedup-size:10000}")
+    private int dedupSize;
+
+    private BlockingQueue<Received> queue;
+    private Set<String> recent;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder queueFull = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        recent = Collections.newSetFromMap(Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > dedupSize;
+            }
+        }));
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "payment-webhook-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+    }
+
+    /**
+     * 서명 확인 후 큐에 넣는다. 큐가 가득 차 받지 못했으면 false.
+     */
+    public boolean receive(String provider, String body, String signature) {
+        if (!PROVIDERS.contains(provider)) {
+            throw new NotFoundException("지원하지 않는 결제사입니다.");
+        }
+        if (!verifySignature(body, signature)) {
+            invalid.increment();
+            throw new UnauthorizedException("웹훅 서명이 올바르지 않습니다.");
+        }
+        BlockingQueue<Received> q = queue;
+        if (q == null || !q.offer(new Received(provider, body))) {
+            queueFull.increment();
+            return false;
+        }
+        accepted.increment();
+        return true;
+    }
+
+    private boolean verifySignature(String body, String signature) {
+        if (secret == null || secret.isEmpty()) {
+            return !Arrays.asList(environment.getActiveProfiles()).contains("prod");
+        }
+        if (signature == null) {
+            return false;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] expected = HexFormat.of().formatHex(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)))
+                    .getBytes(StandardCharsets.US_ASCII);
+            return MessageDigest.isEqual(expected, signature.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII));
+        } catch (Exception e) {
+            log.error("웹훅 서명 확인 실패", e);
+            return false;
+        }
+    }
+
+    private void runWorker() {
+        List<Received> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Received first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("웹훅 처리 실패", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<Received> batch) {
+        List<PaymentTransactionService.Notification> notifications = new ArrayList<>();
+        Set<String> batchKeys = new HashSet<>();
+        for (Received received : batch) {
+            PaymentTransactionService.Notification n = parse(received);
+            if (n == null) {
+                continue;
+            }
+            String key = key(n);
+            if (recent.contains(key) || !batchKeys.add(key)) {
+                duplicates.increment();
+                continue;
+            }
+            notifications.add(n);
+        }
+        if (notifications.isEmpty()) {
+            return;
+        }
+
+        batches.increment();
+        try {
+            remember(paymentTransactionService.applyNotifications(notifications));
+        } catch (Exception e) {
+            // 한 건 때문에 배치 전체가 롤백되면 한 건씩 다시 반영
+            log.warn("웹훅 배치 반영 실패, 개별 반영으로 전환: {}", e.getMessage());
+            for (PaymentTransactionService.Notification n : notifications) {
+                try {
+                    remember(paymentTransactionService.applyNotifications(List.of(n)));
+                } catch (Exception ex) {
+                    failures.increment();
+                    log.error("웹훅 반영 실패: {} {}", n.provider(), n.orderNumber(), ex);
+                }
+            }
+        }
+    }
+
+    // 커밋된 뒤 반영됐거나 결과가 정해진 통지만 중복으로 기억 — 아직 반영 못 한 통지는 재전송 때 다시 처리
+    private void remember(PaymentTransactionService.ApplyResult result) {
+        applied.add(result.changed());
+        result.settled().forEach(n -> recent.add(key(n)));
+    }
+
+    private static String key(PaymentTransactionService.Notification n) {
+        return n.provider() + ":" + n.orderNumber() + ":" + n.kind() + ":" + n.paymentKey();
+    }
+
+    /*
+     * 토스: {"eventType":"PAYMENT_STATUS_CHANGED","data":{"orderId","paymentKey","status","totalAmount"}}
+     * 네이버페이: {"merchantPayKey","paymentId","admissionState","totalPayAmount"}
+     * 주문 상태에 영향이 없는 통지(결제 대기 등)는 null.
+     */
+    private PaymentTransactionService.Notification parse(Received received) {
+        try {
+            JsonNode root = objectMapper.readTree(received.body());
+            String orderNumber;
+            String paymentKey;
+            String status;
+            Integer amount;
+            if (received.provider().equals("toss")) {
+                JsonNode data = root.path("data");
+                orderNumber = data.path("orderId").asText(null);
+                paymentKey = data.path("paymentKey").asText(null);
+                status = data.path("status").asText("");
+                amount = data.hasNonNull("totalAmount") ? data.get("totalAmount").asInt() : null;
+            } else {
+                orderNumber = root.path("merchantPayKey").asText(null);
+                paymentKey = root.path("paymentId").asText(null);
+                status = root.path("admissionState").asText("");
+                amount = root.hasNonNull("totalPayAmount") ? root.get("totalPayAmount").asInt() : null;
+            }
+
+            PaymentTransactionService.Notification.Kind kind = switch (status) {
+                case "DONE", "SUCCESS" -> PaymentTransactionService.Notification.Kind.paid;
+                case "CANCELED", "CANCEL" -> PaymentTransactionService.Notification.Kind.cancelled;
+                default -> null;
+            };
+            if (kind == null || orderNumber == null) {
+                return null;
+            }
+            return new PaymentTransactionService.Notification(received.provider(), orderNumber, paymentKey, kind, amount);
+        } catch (Exception e) {
+            invalid.increment();
+            log.warn("웹훅 본문 파싱 실패 ({}): {}", received.provider(), e.getMessage());
+            return null;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue == null ? 0 : queue.size());
+        stats.put("accepted", accepted.sum());
+        stats.put("queueFull", queueFull.sum());
+        stats.put("invalid", invalid.sum());
+        stats.put("duplicates", duplicates.sum());
+        stats.put("batches", batches.sum());
+        stats.put("applied", applied.sum());
+        stats.put("failures", failures.sum());
+        return stats;
+    }
+}
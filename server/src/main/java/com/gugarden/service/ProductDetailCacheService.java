@@ -0,0 +1,128 @@
+package com.gugarden.service;
+
+import com.gugarden.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 상품 상세 응답 캐시 (상품 ID 기준).
+ * 크기와 TTL로 제한되며, 상품 수정/삭제/재고/이미지 변경 이벤트가 커밋된 뒤 해당 상품만 무효화한다.
+ */
+@Service
+public class ProductDetailCacheService {
+
+    /**
+     * 상세 응답 본문과 ETag.
+     */
+    public record Detail(Map<String, Object> body, String etag) {}
+
+    private record Entry(Detail detail, long loadedAt, long expiresAt) {}
+
+    private final ConcurrentHashMap<Integer, Entry> cache = new ConcurrentHashMap<>();
+
+    // 무효화가 일어날 때마다 증가 — 무효화 이전에 시작된 조회 결과가 캐시에 저장되는 것을 막는다
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    public ProductDetailCacheService(
+            @Value("${app.product-detail-cache.max-entries:1000}") int maxEntries,
+            @Value("${app.product-detail-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * 캐시된 상세가 있으면 반환하고, 없거나 만료되었으면 null.
+     */
+    public Detail getIfPresent(Integer productId) {
+        Entry entry = cache.get(productId);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAt()) {
+            cache.remove(productId, entry);
+            return null;
+        }
+        return entry.detail();
+    }
+
+    public Detail get(Integer productId, Supplier<Detail> loader) {
+        Detail detail = getIfPresent(productId);
+        if (detail != null) {
+            hits.increment();
+            return detail;
+        }
+
+        misses.increment();
+        long gen = generation.get();
+        detail = loader.get();
+
+        if (generation.get() == gen) {
+            long now = System.currentTimeMillis();
+            if (!cache.containsKey(productId) && cache.size() >= maxEntries) {
+                evictEldest();
+            }
+            cache.put(productId, new Entry(detail, now, now + ttlMillis));
+        }
+        return detail;
+    }
+
+    private void evictEldest() {
+        cache.entrySet().stream()
+                .min(Comparator.comparingLong(e -> e.getValue().loadedAt()))
+                .ifPresent(eldest -> {
+                    if (cache.remove(eldest.getKey(), eldest.getValue())) {
+                        evictions.increment();
+                    }
+                });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        generation.incrementAndGet();
+        for (Integer id : event.productIds()) {
+            if (cache.remove(id) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        invalidations.add(cache.size());
+        cache.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", cache.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+}
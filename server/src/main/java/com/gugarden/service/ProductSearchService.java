@@ -0,0 +1,273 @@
+package com.gugarden.service;
+
+import com.gugarden.entity.Product;
+import com.gugarden.event.ProductChangedEvent;
+import com.gugarden.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 상품명/설명에 대한 메모리 역색인 검색.
+ * 단어를 1·2글자 n-gram으로 색인해 한글 부분 일치를 지원하고, 상품명은 초성(ㅌㄹㄹㅇ)으로도 검색할 수 있다.
+ * 시작 시 전체 상품으로 색인을 만들고, 상품 변경 이벤트가 커밋된 뒤 해당 상품만 다시 색인한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchService {
+
+    // 초성 토큰은 일반 토큰과 겹치지 않도록 접두어를 붙여 색인
+    private static final String CHOSEONG_PREFIX = "^";
+
+    private static final int SCORE_NAME_EXACT = 30;
+    private static final int SCORE_NAME_PREFIX = 15;
+    private static final int SCORE_NAME = 10;
+    private static final int SCORE_NAME_CHOSEONG = 8;
+    private static final int SCORE_DESCRIPTION = 3;
+
+    private record Document(Integer id, Integer categoryId, String name, String nameChoseong, String description,
+                            boolean active, LocalDateTime createdAt, Set<String> tokens) {}
+
+    private record Hit(Document doc, int score) {}
+
+    private final ProductRepository productRepository;
+
+    private final ConcurrentHashMap<Integer, Document> documents = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Integer>> postings = new ConcurrentHashMap<>();
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+        synchronized (this) {
+            documents.clear();
+            postings.clear();
+            products.forEach(this::index);
+        }
+        log.info("상품 검색 색인 생성: {}건, 토큰 {}개", documents.size(), postings.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.type()) {
+            case SAVED -> event.productIds().forEach(id ->
+                    productRepository.findById(id).ifPresentOrElse(this::reindex, () -> remove(id)));
+            case DELETED -> event.productIds().forEach(this::remove);
+            case STOCK, IMAGES -> {
+                // 재고/이미지는 색인 대상이 아님
+            }
+        }
+    }
+
+    /**
+     * 검색어와 일치하는 상품 ID를 관련도 순으로 반환한다. 공백으로 나뉜 검색어는 모두 포함해야 일치한다.
+     */
+    public List<Integer> search(String query, int limit, boolean includeInactive) {
+        long start = System.nanoTime();
+        try {
+            List<String> terms = terms(query);
+            if (terms.isEmpty() || limit <= 0) {
+                return List.of();
+            }
+
+            List<Hit> hits = new ArrayList<>();
+            for (Integer id : candidates(terms)) {
+                Document doc = documents.get(id);
+                if (doc == null || (!doc.active() && !includeInactive)) {
+                    continue;
+                }
+                int score = score(doc, terms, true);
+                if (score > 0) {
+                    hits.add(new Hit(doc, score));
+                }
+            }
+
+            hits.sort(Comparator.comparingInt(Hit::score).reversed()
+                    .thenComparing(h -> h.doc().createdAt(), Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(h -> h.doc().id(), Comparator.reverseOrder()));
+            return hits.stream().limit(limit).map(h -> h.doc().id()).toList();
+        } finally {
+            queries.increment();
+            queryNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 관리자 상품 검색. 상품명이 검색어와 일치하는 상품 ID(비활성 포함)를 최신 등록 순으로 모두 반환한다.
+     * categoryId가 null이 아니면 해당 카테고리 상품만. 페이지는 호출하는 쪽에서 목록을 잘라 만든다.
+     */
+    public List<Integer> searchByName(String query, Integer categoryId) {
+        long start = System.nanoTime();
+        try {
+            List<String> terms = terms(query);
+            if (terms.isEmpty()) {
+                return List.of();
+            }
+
+            List<Document> matched = new ArrayList<>();
+            for (Integer id : candidates(terms)) {
+                Document doc = documents.get(id);
+                if (doc != null && (categoryId == null || categoryId.equals(doc.categoryId()))
+                        && score(doc, terms, false) > 0) {
+                    matched.add(doc);
+                }
+            }
+
+            matched.sort(Comparator.comparing(Document::createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(Document::id, Comparator.reverseOrder()));
+            return matched.stream().map(Document::id).toList();
+        } finally {
+            queries.increment();
+            queryNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    // 검색어의 모든 n-gram을 포함하는 상품 (가장 짧은 posting부터 교집합)
+    private Set<Integer> candidates(List<String> terms) {
+        List<Set<Integer>> lists = new ArrayList<>();
+        for (String term : terms) {
+            for (String token : queryTokens(term)) {
+                Set<Integer> ids = postings.get(token);
+                if (ids == null) {
+                    return Set.of();
+                }
+                lists.add(ids);
+            }
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<Integer> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    // n-gram 후보를 실제 부분 문자열 포함 여부로 확인하고 점수 계산 (withDescription이 false면 상품명만)
+    private static int score(Document doc, List<String> terms, boolean withDescription) {
+        int total = 0;
+        for (String term : terms) {
+            int score;
+            if (HangulText.isChoseongOnly(term)) {
+                score = doc.nameChoseong().contains(term) ? SCORE_NAME_CHOSEONG : 0;
+            } else if (doc.name().equals(term)) {
+                score = SCORE_NAME_EXACT;
+            } else if (doc.name().startsWith(term)) {
+                score = SCORE_NAME_PREFIX;
+            } else if (doc.name().contains(term)) {
+                score = SCORE_NAME;
+            } else if (withDescription && doc.description().contains(term)) {
+                score = SCORE_DESCRIPTION;
+            } else {
+                score = 0;
+            }
+            if (score == 0) {
+                return 0;
+            }
+            total += score;
+        }
+        return total;
+    }
+
+    private synchronized void reindex(Product product) {
+        remove(product.getId());
+        index(product);
+    }
+
+    private synchronized void remove(Integer id) {
+        Document old = documents.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String token : old.tokens()) {
+            postings.computeIfPresent(token, (t, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private void index(Product product) {
+        String name = HangulText.normalize(product.getName());
+        String nameChoseong = HangulText.toChoseong(name);
+        String description = HangulText.normalize(product.getDescription());
+
+        Set<String> tokens = new HashSet<>();
+        addTokens(tokens, name, "");
+        addTokens(tokens, description, "");
+        addTokens(tokens, nameChoseong, CHOSEONG_PREFIX);
+
+        Integer categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        Document doc = new Document(product.getId(), categoryId, name, nameChoseong, description,
+                Boolean.TRUE.equals(product.getIsActive()), product.getCreatedAt(), Set.copyOf(tokens));
+        documents.put(doc.id(), doc);
+        for (String token : doc.tokens()) {
+            postings.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(doc.id());
+        }
+    }
+
+    // 단어별 1글자·2글자 n-gram
+    private static void addTokens(Set<String> tokens, String text, String prefix) {
+        for (String word : words(text)) {
+            for (int i = 0; i < word.length(); i++) {
+                tokens.add(prefix + word.charAt(i));
+                if (i + 1 < word.length()) {
+                    tokens.add(prefix + word.substring(i, i + 2));
+                }
+            }
+        }
+    }
+
+    private static List<String> queryTokens(String term) {
+        String prefix = HangulText.isChoseongOnly(term) ? CHOSEONG_PREFIX : "";
+        if (term.length() == 1) {
+            return List.of(prefix + term);
+        }
+        List<String> tokens = new ArrayList<>(term.length() - 1);
+        for (int i = 0; i + 1 < term.length(); i++) {
+            tokens.add(prefix + term.substring(i, i + 2));
+        }
+        return tokens;
+    }
+
+    private static List<String> terms(String query) {
+        return words(HangulText.normalize(query)).stream().distinct().toList();
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    public Map<String, Object> getStats() {
+        long queryCount = queries.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("documents", documents.size());
+        stats.put("tokens", postings.size());
+        stats.put("queries", queryCount);
+        stats.put("avgQueryMicros", queryCount == 0 ? 0.0 : queryNanos.sum() / 1000.0 / queryCount);
+        return stats;
+    }
+}
@@ -3,6 +3,7 @@ package com.gugarden.service;
 import com.gugarden.entity.Category;
 import com.gugarden.entity.Product;
 import com.gugarden.entity.ProductImage;
+import com.gugarden.event.ProductChangedEvent;
 import com.gugarden.exception.BadRequestException;
 import com.gugarden.exception.NotFoundException;
 import com.gugarden.repository.CategoryRepository;
@@ -10,11 +11,14 @@ import com.gugarden.repository.OrderItemRepository;
 import com.gugarden.repository.ProductImageRepository;
 import com.gugarden.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -27,32 +31,128 @@ public class ProductService {
     private final CategoryRepository categoryRepository;
     private final OrderItemRepository orderItemRepository;
     private final FileUploadService fileUploadService;
+    private final CatalogCacheService catalogCacheService;
+    private final ProductDetailCacheService productDetailCacheService;
+    private final ProductSearchService productSearchService;
+    private final InventoryService inventoryService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public Map<String, Object> getAllActiveProducts() {
-        List<Product> products = productRepository.findAllActive();
-        return Map.of("products", products.stream().map(this::toProductMap).toList());
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int FEATURED_LIMIT = 8;
+
+    public CatalogCacheService.Snapshot getAllActiveProducts() {
+        return catalogCacheService.getSnapshot(CatalogCacheService.KEY_ALL,
+                () -> toProductMaps(productRepository.findAllActive()),
+                productRepository::findActiveVersion);
     }
 
-    public Map<String, Object> getProductsByCategory(String slug) {
-        List<Product> products = productRepository.findByCategorySlugAndActive(slug);
-        return Map.of("products", products.stream().map(this::toProductMap).toList());
+    public CatalogCacheService.Snapshot getProductsByCategory(String slug) {
+        return catalogCacheService.getSnapshot(CatalogCacheService.categoryKey(slug),
+                () -> toProductMaps(productRepository.findByCategorySlugAndActive(slug)),
+                () -> productRepository.findCategoryVersion(slug));
     }
 
-    public Map<String, Object> getFeaturedProducts() {
-        List<Product> products = productRepository.findFeatured();
-        return Map.of("products", products.stream().map(this::toProductMap).toList());
+    public CatalogCacheService.Snapshot getFeaturedProducts() {
+        PageRequest top = PageRequest.of(0, FEATURED_LIMIT);
+        return catalogCacheService.getSnapshot(CatalogCacheService.KEY_FEATURED,
+                () -> toProductMaps(productRepository.findFeatured(top)),
+                () -> productRepository.findFeaturedVersion(top));
     }
 
-    public Map<String, Object> getRentableProducts() {
-        List<Product> products = productRepository.findRentable();
-        return Map.of("products", products.stream().map(this::toProductMap).toList());
+    public CatalogCacheService.Snapshot getRentableProducts() {
+        return catalogCacheService.getSnapshot(CatalogCacheService.KEY_RENTABLE,
+                () -> toProductMaps(productRepository.findRentable()),
+                productRepository::findRentableVersion);
     }
 
-    public Map<String, Object> getProductDetail(Integer id) {
-        Product product = productRepository.findByIdAndActive(id)
+    /**
+     * 커서 기반 목록 조회. after는 직전 페이지 마지막 상품의 "createdAt,id"이며, 없으면 첫 페이지.
+     * 다음 페이지가 있을 때만 nextCursor를 반환한다.
+     */
+    public Map<String, Object> getActiveProductsPage(String categorySlug, String after, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit은 1~" + MAX_PAGE_SIZE + " 사이여야 합니다.");
+        }
+
+        // 다음 페이지 존재 여부 확인을 위해 한 건 더 조회
+        PageRequest pageRequest = PageRequest.of(0, size + 1);
+        List<Product> products;
+        if (after == null || after.isBlank()) {
+            products = categorySlug == null
+                    ? productRepository.findActiveFirstPage(pageRequest)
+                    : productRepository.findActiveByCategoryFirstPage(categorySlug, pageRequest);
+        } else {
+            int comma = after.lastIndexOf(',');
+            LocalDateTime createdAt;
+            Integer id;
+            try {
+                createdAt = LocalDateTime.parse(after.substring(0, comma));
+                id = Integer.valueOf(after.substring(comma + 1));
+            } catch (RuntimeException e) {
+                throw new BadRequestException("유효하지 않은 커서입니다.");
+            }
+            products = categorySlug == null
+                    ? productRepository.findActiveAfter(createdAt, id, pageRequest)
+                    : productRepository.findActiveByCategoryAfter(categorySlug, createdAt, id, pageRequest);
+        }
+
+        String nextCursor = null;
+        if (products.size() > size) {
+            products = products.subList(0, size);
+            Product last = products.get(size - 1);
+            nextCursor = last.getCreatedAt() + "," + last.getId();
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("products", toProductMaps(products));
+        result.put("nextCursor", nextCursor);
+        return result;
+    }
+
+    /**
+     * 상품명/설명 검색. 관련도 순으로 최대 limit개를 반환한다.
+     */
+    public Map<String, Object> searchProducts(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("검색어를 입력해주세요.");
+        }
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        List<Integer> ids = productSearchService.search(query, size, false);
+        Map<Integer, Product> byId = productRepository.findActiveByIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getId, p -> p));
+        List<Product> products = ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+
+        return Map.of("products", toProductMaps(products));
+    }
+
+    /**
+     * 상품 상세의 ETag. 상품 수정 시각과 이미지 건수/최대 ID로 만들며, 상품이 없으면 null.
+     * 캐시된 상세가 있으면 쿼리 없이 그 ETag를 사용한다.
+     */
+    public String getProductDetailEtag(Integer id) {
+        ProductDetailCacheService.Detail cached = productDetailCacheService.getIfPresent(id);
+        if (cached != null) {
+            return cached.etag();
+        }
+        return productRepository.findDetailVersion(id)
+                .map(v -> detailEtag(id, v.count(), v.maxId(), v.lastUpdatedAt()))
+                .orElse(null);
+    }
+
+    public ProductDetailCacheService.Detail getProductDetail(Integer id) {
+        return productDetailCacheService.get(id, () -> loadProductDetail(id));
+    }
+
+    // 상품, 카테고리, 이미지(sort_order 순)를 한 번에 조회
+    private ProductDetailCacheService.Detail loadProductDetail(Integer id) {
+        Product product = productRepository.findDetailById(id)
                 .orElseThrow(() -> new NotFoundException("상품을 찾을 수 없습니다."));
 
-        List<ProductImage> images = productImageRepository.findByProductIdOrderBySortOrderAsc(id);
+        List<ProductImage> images = product.getImages();
+        Integer maxImageId = images.stream().map(ProductImage::getId).max(Integer::compare).orElse(null);
 
         Map<String, Object> productMap = toProductMap(product);
         productMap.put("images", images.stream().map(img -> {
@@ -65,7 +165,13 @@ public class ProductService {
             return m;
         }).toList());
 
-        return Map.of("product", productMap);
+        return new ProductDetailCacheService.Detail(Map.of("product", productMap),
+                detailEtag(id, images.size(), maxImageId, product.getUpdatedAt()));
+    }
+
+    private static String detailEtag(Integer id, long imageCount, Integer maxImageId, LocalDateTime updatedAt) {
+        long updated = updatedAt == null ? 0 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return "\"p" + id + "-" + imageCount + "-" + maxImageId + "-" + updated + "\"";
     }
 
     @Transactional
@@ -90,6 +196,7 @@ public class ProductService {
                 .build();
 
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(product));
 
         Map<String, Object> result = new HashMap<>();
         result.put("message", "상품이 등록되었습니다.");
@@ -115,7 +222,7 @@ public class ProductService {
         if (description != null) product.setDescription(description);
         if (price != null) product.setPrice(price);
         product.setSalePrice(salePrice);
-        if (stock != null) product.setStock(stock);
+        if (stock != null) inventoryService.setStock(product, stock);
         if (isActive != null) product.setIsActive(isActive);
         if (isFeatured != null) product.setIsFeatured(isFeatured);
 
@@ -124,6 +231,7 @@ public class ProductService {
         }
 
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(product));
 
         return Map.of("message", "상품이 수정되었습니다.");
     }
@@ -134,6 +242,7 @@ public class ProductService {
                 .orElseThrow(() -> new NotFoundException("상품을 찾을 수 없습니다."));
 
         productRepository.delete(product);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
         return Map.of("message", "상품이 삭제되었습니다.");
     }
 
@@ -155,6 +264,7 @@ public class ProductService {
                     .build();
             productImageRepository.save(image);
         }
+        eventPublisher.publishEvent(ProductChangedEvent.imagesChanged(productId));
 
         return Map.of("message", "이미지가 추가되었습니다.");
     }
@@ -165,9 +275,14 @@ public class ProductService {
                 .orElseThrow(() -> new NotFoundException("이미지를 찾을 수 없습니다."));
 
         productImageRepository.delete(image);
+        eventPublisher.publishEvent(ProductChangedEvent.imagesChanged(image.getProduct().getId()));
         return Map.of("message", "이미지가 삭제되었습니다.");
     }
 
+    private List<Map<String, Object>> toProductMaps(List<Product> products) {
+        return products.stream().map(this::toProductMap).toList();
+    }
+
     private Map<String, Object> toProductMap(Product product) {
         Map<String, Object> map = new LinkedHashMap<>();
         map.put("id", product.getId());
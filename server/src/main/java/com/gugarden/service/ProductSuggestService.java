@@ -0,0 +1,202 @@
+package com.gugarden.service;
+
+import com.gugarden.entity.Category;
+import com.gugarden.entity.Product;
+import com.gugarden.event.ProductChangedEvent;
+import com.gugarden.repository.CategoryRepository;
+import com.gugarden.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 활성 상품명/카테고리명 자동완성용 접두어 트라이.
+ * 이름을 자모 단위로 분해해 색인하므로 입력 중인 글자("테랄")와 초성("ㅌㄹ")도 접두어로 일치한다.
+ * 각 노드가 하위 항목을 정렬된 상태로 보관해 조회 시 DB 접근 없이 노드 탐색만으로 응답한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSuggestService {
+
+    private static final int MAX_DEPTH = 40;
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 20;
+
+    private static final String TYPE_CATEGORY = "category";
+    private static final String TYPE_PRODUCT = "product";
+
+    // 카테고리 우선, 짧은 이름 우선
+    private static final Comparator<Suggestion> ORDER = Comparator
+            .comparing((Suggestion s) -> !TYPE_CATEGORY.equals(s.type()))
+            .thenComparingInt(s -> s.name().length())
+            .thenComparing(Suggestion::name)
+            .thenComparing(Suggestion::id);
+
+    private record Suggestion(String type, Integer id, String name, List<String> keys, Map<String, Object> body) {}
+
+    private static final class Node {
+        final ConcurrentHashMap<Character, Node> children = new ConcurrentHashMap<>();
+        final ConcurrentSkipListSet<Suggestion> suggestions = new ConcurrentSkipListSet<>(ORDER);
+    }
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+
+    private volatile Node root = new Node();
+    private final ConcurrentHashMap<Integer, Suggestion> products = new ConcurrentHashMap<>();
+
+    private final LongAdder queries = new LongAdder();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Category> categories = categoryRepository.findAll();
+        List<Product> activeProducts = productRepository.findAllActive();
+
+        synchronized (this) {
+            Node newRoot = new Node();
+            products.clear();
+            for (Category c : categories) {
+                insert(newRoot, suggestion(TYPE_CATEGORY, c.getId(), c.getName(), c.getSlug()));
+            }
+            for (Product p : activeProducts) {
+                Suggestion s = suggestion(TYPE_PRODUCT, p.getId(), p.getName(), p.getSlug());
+                insert(newRoot, s);
+                products.put(p.getId(), s);
+            }
+            root = newRoot;
+        }
+        log.info("자동완성 색인 생성: 카테고리 {}건, 상품 {}건", categories.size(), products.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.type()) {
+            case SAVED -> event.productIds().forEach(id -> {
+                Optional<Product> product = productRepository.findById(id);
+                if (product.isPresent() && Boolean.TRUE.equals(product.get().getIsActive())) {
+                    put(product.get());
+                } else {
+                    remove(id);
+                }
+            });
+            case DELETED -> event.productIds().forEach(this::remove);
+            case STOCK, IMAGES -> {
+                // 이름이 바뀌지 않음
+            }
+        }
+    }
+
+    /**
+     * 입력한 접두어로 시작하는 카테고리/상품 이름을 반환한다.
+     */
+    public Map<String, Object> suggest(String query, Integer limit) {
+        queries.increment();
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        String key = HangulText.toJamo(HangulText.normalize(query).strip());
+        if (key.isEmpty()) {
+            return Map.of("suggestions", List.of());
+        }
+
+        Node node = root;
+        for (int i = 0; i < key.length() && i < MAX_DEPTH; i++) {
+            node = node.children.get(key.charAt(i));
+            if (node == null) {
+                return Map.of("suggestions", List.of());
+            }
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(size);
+        for (Suggestion s : node.suggestions) {
+            // 색인 깊이보다 긴 입력은 키 전체로 확인
+            if (key.length() > MAX_DEPTH && s.keys().stream().noneMatch(k -> k.startsWith(key))) {
+                continue;
+            }
+            result.add(s.body());
+            if (result.size() == size) {
+                break;
+            }
+        }
+        return Map.of("suggestions", result);
+    }
+
+    private synchronized void put(Product product) {
+        Suggestion old = products.get(product.getId());
+        if (old != null && old.name().equals(product.getName())
+                && Objects.equals(old.body().get("slug"), product.getSlug())) {
+            return;
+        }
+        Suggestion s = suggestion(TYPE_PRODUCT, product.getId(), product.getName(), product.getSlug());
+        if (old != null) {
+            delete(root, old);
+        }
+        insert(root, s);
+        products.put(product.getId(), s);
+    }
+
+    private synchronized void remove(Integer productId) {
+        Suggestion old = products.remove(productId);
+        if (old != null) {
+            delete(root, old);
+        }
+    }
+
+    private static void insert(Node root, Suggestion s) {
+        for (String key : s.keys()) {
+            Node node = root;
+            for (int i = 0; i < key.length() && i < MAX_DEPTH; i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+                node.suggestions.add(s);
+            }
+        }
+    }
+
+    private static void delete(Node root, Suggestion s) {
+        for (String key : s.keys()) {
+            Node node = root;
+            for (int i = 0; i < key.length() && i < MAX_DEPTH && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+                if (node != null) {
+                    node.suggestions.remove(s);
+                }
+            }
+        }
+    }
+
+    // 이름 전체와 각 단어 시작 위치부터의 자모/초성 문자열을 키로 사용
+    private static Suggestion suggestion(String type, Integer id, String name, String slug) {
+        String normalized = HangulText.normalize(name).strip();
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            boolean wordStart = Character.isLetterOrDigit(normalized.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1)));
+            if (wordStart) {
+                String rest = normalized.substring(i);
+                keys.add(HangulText.toJamo(rest));
+                keys.add(HangulText.toChoseong(rest));
+            }
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("type", type);
+        body.put("id", id);
+        body.put("name", name);
+        body.put("slug", slug);
+        return new Suggestion(type, id, name, List.copyOf(keys), Collections.unmodifiableMap(body));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("products", products.size());
+        stats.put("queries", queries.sum());
+        return stats;
+    }
+}
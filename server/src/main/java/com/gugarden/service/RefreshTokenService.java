@@ -0,0 +1,229 @@
+package com.gugarden.service;
+
+import com.gugarden.entity.RefreshToken;
+import com.gugarden.exception.UnauthorizedException;
+import com.gugarden.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 리프레시 토큰 발급/회전.
+ * 토큰은 한 번 쓰면 새 토큰으로 바뀌고(회전), 이미 회전된 토큰이 다시 들어오면 탈취로 보고 같은 로그인의 토큰을 모두 폐기한다.
+ * 여러 탭이 거의 동시에 같은 토큰으로 갱신하는 경우를 위해, 회전 시각과 새 토큰 해시를 이전 토큰 행에 남겨 두고
+ * 유예 시간(refresh-grace-ms) 안에 다시 들어온 이전 토큰은 재사용으로 보지 않는다 — 다른 서버로 간 요청도 DB로 판단한다.
+ * 같은 서버면 방금 회전한 결과를 메모리에서 그대로 돌려주고, 다른 서버면 같은 묶음에 새 토큰을 하나 더 발급한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * 회전 결과 — 새 리프레시 토큰 원문과 사용자 ID.
+     */
+    public record Rotation(Integer userId, String refreshToken) {}
+
+    private record Recent(Rotation rotation, Long familyId, long expiresAt) {}
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${app.jwt.refresh-expiration:1209600000}")
+    private long refreshExpiration;
+
+    @Value("${app.jwt.refresh-grace-ms:10000}")
+    private long graceMillis;
+
+    // 이전 토큰 해시 → 방금 회전한 결과 (graceMillis 동안)
+    private final ConcurrentHashMap<ByteBuffer, Recent> recentRotations = new ConcurrentHashMap<>();
+
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder rotated = new LongAdder();
+    private final LongAdder graceHits = new LongAdder();
+    private final LongAdder graceReissues = new LongAdder();
+    private final LongAdder reuseDetected = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+
+    /**
+     * 로그인 시 새 토큰 묶음을 시작한다.
+     */
+    @Transactional
+    public String issue(Integer userId) {
+        return create(userId, RANDOM.nextLong());
+    }
+
+    private String create(Integer userId, Long familyId) {
+        byte[] raw = new byte[32];
+        RANDOM.nextBytes(raw);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .userId(userId)
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .expiresAt(LocalDateTime.now().plusNanos(refreshExpiration * 1_000_000))
+                .build());
+        issued.increment();
+        return token;
+    }
+
+    /**
+     * 토큰을 새 토큰으로 바꾼다. 없거나 만료되었거나 이미 쓴 토큰이면 UnauthorizedException.
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public Rotation rotate(String token) {
+        if (token == null || token.isBlank()) {
+            rejected.increment();
+            throw new UnauthorizedException("다시 로그인해주세요.");
+        }
+        byte[] tokenHash = hash(token);
+        ByteBuffer key = ByteBuffer.wrap(tokenHash);
+
+        Recent recent = recentRotations.get(key);
+        if (recent != null && System.currentTimeMillis() < recent.expiresAt()) {
+            graceHits.increment();
+            return recent.rotation();
+        }
+
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(tokenHash).orElse(null);
+        if (current == null || current.getExpiresAt().isBefore(LocalDateTime.now())) {
+            rejected.increment();
+            throw new UnauthorizedException("다시 로그인해주세요.");
+        }
+        if (current.getUsedAt() != null) {
+            // 잠금을 기다리는 사이 다른 요청이 회전했으면 그 결과를 돌려준다
+            recent = recentRotations.get(key);
+            if (recent != null && System.currentTimeMillis() < recent.expiresAt()) {
+                graceHits.increment();
+                return recent.rotation();
+            }
+            // 다른 서버에서 방금 회전한 토큰 — 새 토큰이 아직 쓰이지 않았으면 같은 묶음에 하나 더 발급
+            if (withinGrace(current)) {
+                graceReissues.increment();
+                return new Rotation(current.getUserId(), create(current.getUserId(), current.getFamilyId()));
+            }
+            reuseDetected.increment();
+            refreshTokenRepository.deleteByFamilyId(current.getFamilyId());
+            log.warn("리프레시 토큰 재사용 감지 — 사용자 {}의 로그인 세션 폐기", current.getUserId());
+            throw new UnauthorizedException("다시 로그인해주세요.");
+        }
+
+        Rotation rotation = new Rotation(current.getUserId(), create(current.getUserId(), current.getFamilyId()));
+        current.setUsedAt(LocalDateTime.now());
+        current.setReplacedBy(hash(rotation.refreshToken()));
+        rememberAfterCommit(key, new Recent(rotation, current.getFamilyId(), System.currentTimeMillis() + graceMillis));
+        rotated.increment();
+        return rotation;
+    }
+
+    private boolean withinGrace(RefreshToken current) {
+        if (current.getReplacedBy() == null
+                || current.getUsedAt().isBefore(LocalDateTime.now().minusNanos(graceMillis * 1_000_000))) {
+            return false;
+        }
+        return refreshTokenRepository.findByTokenHash(current.getReplacedBy())
+                .map(successor -> successor.getUsedAt() == null)
+                .orElse(false);
+    }
+
+    // 롤백된 회전을 다른 탭에 돌려주지 않도록 커밋된 뒤에 등록
+    private void rememberAfterCommit(ByteBuffer key, Recent recent) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(key, recent);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(key, recent);
+            }
+        });
+    }
+
+    private void remember(ByteBuffer key, Recent recent) {
+        long now = System.currentTimeMillis();
+        if (recentRotations.size() >= 1000) {
+            recentRotations.values().removeIf(r -> r.expiresAt() <= now);
+        }
+        recentRotations.put(key, recent);
+    }
+
+    /**
+     * 로그아웃 — 이 토큰이 속한 로그인 세션의 토큰을 폐기한다.
+     */
+    @Transactional
+    public void revoke(String token) {
+        if (token == null || token.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findByTokenHash(hash(token)).ifPresent(t -> {
+            refreshTokenRepository.deleteByFamilyId(t.getFamilyId());
+            // 유예 중인 회전 결과도 버려야 로그아웃 직후 이전 토큰으로 다시 갱신되지 않는다
+            recentRotations.values().removeIf(r -> r.familyId().equals(t.getFamilyId()));
+        });
+    }
+
+    /**
+     * 비밀번호 변경/탈퇴/역할 변경 — 사용자의 모든 리프레시 토큰 폐기.
+     */
+    @Transactional
+    public void revokeAll(Integer userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+        recentRotations.values().removeIf(r -> r.rotation().userId().equals(userId));
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-cleanup-interval-ms:3600000}",
+            initialDelayString = "${app.jwt.refresh-cleanup-interval-ms:3600000}")
+    @Transactional
+    public void cleanup() {
+        long now = System.currentTimeMillis();
+        recentRotations.values().removeIf(r -> r.expiresAt() <= now);
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("만료된 리프레시 토큰 {}건 삭제", deleted);
+        }
+    }
+
+    private static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("issued", issued.sum());
+        stats.put("rotated", rotated.sum());
+        stats.put("graceHits", graceHits.sum());
+        stats.put("graceReissues", graceReissues.sum());
+        stats.put("reuseDetected", reuseDetected.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("recentRotations", recentRotations.size());
+        return stats;
+    }
+}
@@ -0,0 +1,270 @@
+package com.gugarden.service;
+
+import com.gugarden.entity.Order;
+import com.gugarden.entity.OrderItem;
+import com.gugarden.entity.SalesRollup;
+import com.gugarden.event.OrderStatusChangedEvent;
+import com.gugarden.exception.BadRequestException;
+import com.gugarden.repository.OrderItemRepository;
+import com.gugarden.repository.SalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 시간/일/월 단위 매출 집계 (sales_rollups).
+ * 주문이 매출 상태(결제 완료~배송 완료)에 들어가거나 나올 때 주문 상품별로 해당 버킷을 증감한다.
+ * 매출은 주문 상품 금액(단가 × 수량) 기준이며 배송비는 포함하지 않고, 버킷은 주문 생성 시각 기준이다.
+ * 증감은 결제/취소 트랜잭션이 커밋된 뒤 메모리에 모아 두었다가 주기적으로 별도 트랜잭션에서 반영한다 —
+ * 인기 상품의 집계 행 잠금을 결제 트랜잭션이 쥐지 않고, 반영은 (상품, 단위, 버킷) 순서라 서로 교착되지 않는다.
+ * 반영 전에 서버가 내려가면 그 증감은 사라지므로 rebuild()로 복구한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SalesRollupService {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final int MAX_BUCKETS = 1000;
+
+    private static final List<Order.OrderStatus> REVENUE_STATUSES = Arrays.stream(Order.OrderStatus.values())
+            .filter(Order.OrderStatus::countsAsRevenue).toList();
+
+    private record BucketKey(SalesRollup.Granularity granularity, LocalDateTime bucketStart, Integer productId) {}
+
+    private record Sum(Integer categoryId, long revenue, long units) {
+        Sum plus(Sum other) {
+            return new Sum(categoryId, revenue + other.revenue, units + other.units);
+        }
+    }
+
+    // 모든 반영이 같은 순서로 행을 잠그도록 정렬
+    private static final Comparator<BucketKey> LOCK_ORDER = Comparator.comparing(BucketKey::productId)
+            .thenComparing(BucketKey::granularity)
+            .thenComparing(BucketKey::bucketStart);
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // 아직 반영하지 않은 버킷별 증감
+    private final ConcurrentHashMap<BucketKey, Sum> pending = new ConcurrentHashMap<>();
+    // 반영과 재생성이 겹치지 않게 한다
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+
+    // 커밋된 상태 변경만 모은다 (롤백된 결제는 집계되지 않음)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        int sign = revenue(event.to()) - revenue(event.from());
+        if (sign == 0) {
+            return;
+        }
+        LocalDateTime createdAt = event.createdAt() != null ? event.createdAt() : LocalDateTime.now();
+
+        for (OrderItem item : orderItemRepository.findByOrderIdWithProduct(event.orderId())) {
+            Sum delta = new Sum(item.getProduct().getCategory().getId(),
+                    sign * (long) item.getProductPrice() * item.getQuantity(), sign * item.getQuantity());
+            for (SalesRollup.Granularity granularity : SalesRollup.Granularity.values()) {
+                pending.merge(new BucketKey(granularity, bucketStart(granularity, createdAt), item.getProduct().getId()),
+                        delta, Sum::plus);
+            }
+        }
+    }
+
+    /**
+     * 모아 둔 증감을 한 트랜잭션에서 반영한다. 실패하면 다음 주기에 다시 시도한다.
+     */
+    @Scheduled(fixedDelayString = "${app.sales-rollup.flush-interval-ms:1000}",
+            initialDelayString = "${app.sales-rollup.flush-interval-ms:1000}")
+    public void flushPending() {
+        flushLock.lock();
+        try {
+            Map<BucketKey, Sum> batch = new TreeMap<>(LOCK_ORDER);
+            for (BucketKey key : pending.keySet()) {
+                Sum sum = pending.remove(key);
+                if (sum != null) {
+                    batch.put(key, sum);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> batch.forEach(this::upsert));
+                flushes.increment();
+            } catch (RuntimeException e) {
+                flushFailures.increment();
+                batch.forEach((key, sum) -> pending.merge(key, sum, Sum::plus));
+                log.warn("매출 집계 반영 실패 — 다음 주기에 다시 시도: {}", e.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void upsert(BucketKey key, Sum sum) {
+        salesRollupRepository.upsert(key.granularity().name(), key.bucketStart(), key.productId(),
+                sum.categoryId(), sum.revenue(), sum.units());
+    }
+
+    private static int revenue(Order.OrderStatus status) {
+        return status != null && status.countsAsRevenue() ? 1 : 0;
+    }
+
+    static LocalDateTime bucketStart(SalesRollup.Granularity granularity, LocalDateTime time) {
+        return switch (granularity) {
+            case hour -> time.truncatedTo(ChronoUnit.HOURS);
+            case day -> time.truncatedTo(ChronoUnit.DAYS);
+            case month -> time.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        };
+    }
+
+    private static LocalDateTime nextBucket(SalesRollup.Granularity granularity, LocalDateTime bucketStart) {
+        return switch (granularity) {
+            case hour -> bucketStart.plusHours(1);
+            case day -> bucketStart.plusDays(1);
+            case month -> bucketStart.plusMonths(1);
+        };
+    }
+
+    /**
+     * 기간 내 버킷별 매출/판매수량. 매출이 없는 버킷은 0으로 채운다.
+     * from/to는 날짜 단위이며 둘 다 포함한다.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSalesSeries(String granularity, LocalDate from, LocalDate to,
+                                              Integer productId, Integer categoryId) {
+        SalesRollup.Granularity g;
+        try {
+            g = SalesRollup.Granularity.valueOf(granularity);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("집계 단위는 hour, day, month 중 하나여야 합니다.");
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (start.isAfter(end)) {
+            throw new BadRequestException("조회 시작일이 종료일보다 늦습니다.");
+        }
+
+        LocalDateTime rangeStart = bucketStart(g, start.atStartOfDay());
+        LocalDateTime rangeEnd = end.plusDays(1).atStartOfDay();
+        long bucketCount = switch (g) {
+            case hour -> ChronoUnit.HOURS.between(rangeStart, rangeEnd);
+            case day -> ChronoUnit.DAYS.between(rangeStart, rangeEnd);
+            case month -> ChronoUnit.MONTHS.between(rangeStart, rangeEnd) + 1;
+        };
+        if (bucketCount > MAX_BUCKETS) {
+            throw new BadRequestException("조회 기간이 너무 깁니다. (최대 " + MAX_BUCKETS + "개 구간)");
+        }
+
+        Map<LocalDateTime, long[]> sums = new HashMap<>();
+        for (Object[] row : salesRollupRepository.sumByBucket(g, rangeStart, rangeEnd, productId, categoryId)) {
+            sums.put((LocalDateTime) row[0], new long[]{((Number) row[1]).longValue(), ((Number) row[2]).longValue()});
+        }
+
+        List<Map<String, Object>> series = new ArrayList<>();
+        long totalRevenue = 0;
+        long totalUnits = 0;
+        for (LocalDateTime bucket = rangeStart; bucket.isBefore(rangeEnd); bucket = nextBucket(g, bucket)) {
+            long[] sum = sums.getOrDefault(bucket, new long[2]);
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("bucket", bucket);
+            point.put("revenue", sum[0]);
+            point.put("units", sum[1]);
+            series.add(point);
+            totalRevenue += sum[0];
+            totalUnits += sum[1];
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("granularity", g.name());
+        result.put("from", start);
+        result.put("to", end);
+        result.put("series", series);
+        result.put("totalRevenue", totalRevenue);
+        result.put("totalUnits", totalUnits);
+        return result;
+    }
+
+    /**
+     * 주문 상품 전체로 집계를 다시 만든다. 집계 누락/오류 복구용.
+     * 기존 집계를 지운 뒤 주문 상품을 키셋 배치로 읽어 배치마다 버킷별로 합쳐 누적 upsert하므로,
+     * 메모리는 주문 이력 전체가 아니라 배치 하나 분량만 쓴다.
+     * 아직 반영하지 않은 증감은 이미 커밋된 주문의 것이라 재생성 결과에 포함되므로 버린다
+     * (재생성 직전에 커밋되어 그 뒤에 모인 증감은 한 번 더 반영될 수 있다).
+     */
+    public Map<String, Object> rebuild() {
+        flushLock.lock();
+        try {
+            pending.clear();
+            return transactionTemplate.execute(status -> rebuildRows());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private Map<String, Object> rebuildRows() {
+        salesRollupRepository.deleteAllRows();
+
+        int lastId = 0;
+        long itemCount = 0;
+        while (true) {
+            List<Object[]> rows = orderItemRepository.findSalesRowsAfter(lastId, REVENUE_STATUSES,
+                    PageRequest.of(0, REBUILD_BATCH_SIZE));
+            flush(rows);
+            itemCount += rows.size();
+            if (rows.size() < REBUILD_BATCH_SIZE) {
+                break;
+            }
+            lastId = (Integer) rows.get(rows.size() - 1)[0];
+        }
+
+        long rollupCount = salesRollupRepository.count();
+        log.info("매출 집계 재생성: 주문 상품 {}건, 집계 행 {}건", itemCount, rollupCount);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("message", "매출 집계를 다시 생성했습니다.");
+        result.put("orderItems", itemCount);
+        result.put("rollups", rollupCount);
+        return result;
+    }
+
+    // 배치 하나를 버킷별로 합쳐 upsert — 같은 버킷이 다음 배치에 또 나오면 DB에서 누적된다
+    private void flush(List<Object[]> rows) {
+        Map<BucketKey, Sum> sums = new TreeMap<>(LOCK_ORDER);
+        for (Object[] row : rows) {
+            LocalDateTime createdAt = (LocalDateTime) row[1];
+            Integer productId = (Integer) row[2];
+            long units = ((Number) row[5]).longValue();
+            Sum delta = new Sum((Integer) row[3], ((Number) row[4]).longValue() * units, units);
+            for (SalesRollup.Granularity g : SalesRollup.Granularity.values()) {
+                sums.merge(new BucketKey(g, bucketStart(g, createdAt), productId), delta, Sum::plus);
+            }
+        }
+        sums.forEach(this::upsert);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending.size());
+        stats.put("flushes", flushes.sum());
+        stats.put("flushFailures", flushFailures.sum());
+        return stats;
+    }
+}
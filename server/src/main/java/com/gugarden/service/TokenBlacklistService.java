@@ -1,31 +1,15 @@
 package com.gugarden.service;
 
-import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.stereotype.Service;
+/**
+ * 사용자별 토큰 무효화 시각. 그 이전에 발급된 액세스 토큰은 거부된다.
+ * 요청마다 확인하므로 조회는 항상 서버 메모리에서 끝나야 한다.
+ * app.auth-store.type으로 구현을 고른다 — memory(서버 1대), db(여러 서버가 공유).
+ */
+public interface TokenBlacklistService {
 
-import java.util.concurrent.ConcurrentHashMap;
+    void invalidateUser(Integer userId);
 
-@Service
-public class TokenBlacklistService {
+    boolean isBlacklisted(Integer userId, long tokenIssuedAtMillis);
 
-    // userId → 무효화 시각 (epoch millis)
-    private final ConcurrentHashMap<Integer, Long> blacklist = new ConcurrentHashMap<>();
-
-    public void invalidateUser(Integer userId) {
-        blacklist.put(userId, System.currentTimeMillis());
-    }
-
-    public boolean isBlacklisted(Integer userId, long tokenIssuedAtMillis) {
-        Long invalidatedAt = blacklist.get(userId);
-        if (invalidatedAt == null) {
-            return false;
-        }
-        return tokenIssuedAtMillis < invalidatedAt;
-    }
-
-    @Scheduled(fixedRate = 3600000) // 1시간마다
-    public void cleanup() {
-        long sevenDaysAgo = System.currentTimeMillis() - 604_800_000L;
-        blacklist.entrySet().removeIf(entry -> entry.getValue() < sevenDaysAgo);
-    }
+    int size();
 }
@@ -48,6 +48,7 @@ CREATE TABLE products (
     price INT NOT NULL,
     sale_price INT,
     stock INT DEFAULT 0,
+    stock_shards INT NOT NULL DEFAULT 0,
     thumbnail VARCHAR(500),
     is_active BOOLEAN DEFAULT TRUE,
     is_featured BOOLEAN DEFAULT FALSE,
@@ -97,6 +98,7 @@ CREATE TABLE orders (
     payment_method VARCHAR(50),
     payment_key VARCHAR(255),
     paid_at TIMESTAMP NULL,
+    hold_expires_at DATETIME,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(id)
@@ -130,9 +132,97 @@ CREATE TABLE rental_inquiries (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
 
+-- 인기 상품 재고 샤드 (products.stock_shards > 0 인 상품만 사용)
+CREATE TABLE product_stock_shards (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    product_id INT NOT NULL,
+    shard_no INT NOT NULL,
+    stock INT NOT NULL DEFAULT 0,
+    UNIQUE KEY uk_product_stock_shards (product_id, shard_no),
+    FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE
+);
+
+-- 매출 집계 (시간/일/월 버킷 × 상품)
+CREATE TABLE sales_rollups (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    granularity VARCHAR(10) NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    product_id INT NOT NULL,
+    category_id INT NOT NULL,
+    revenue BIGINT NOT NULL DEFAULT 0,
+    units BIGINT NOT NULL DEFAULT 0,
+    UNIQUE KEY uk_sales_rollups_bucket (granularity, bucket_start, product_id)
+);
+
+-- PG 승인/취소 요청 기록 (requested → succeeded/failed)
+CREATE TABLE payment_transactions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_id INT NOT NULL,
+    type VARCHAR(10) NOT NULL,
+    status VARCHAR(10) NOT NULL,
+    payment_key VARCHAR(200),
+    amount INT,
+    cancel_reason VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE
+);
+
+-- Idempotency-Key 응답 저장 (주문 생성/결제 승인 재시도 중복 방지)
+CREATE TABLE idempotency_keys (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL,
+    idem_key VARCHAR(100) NOT NULL,
+    scope VARCHAR(100) NOT NULL,
+    lease_until DATETIME NOT NULL,
+    response_status INT,
+    response_body TEXT,
+    expires_at DATETIME NOT NULL,
+    UNIQUE KEY uk_idempotency_keys (user_id, idem_key)
+);
+
+-- 리프레시 토큰 (원문 대신 SHA-256 저장, 회전 시 이전 토큰은 used_at과 새 토큰 해시 replaced_by 기록)
+CREATE TABLE refresh_tokens (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL,
+    token_hash BINARY(32) NOT NULL,
+    family_id BIGINT NOT NULL,
+    expires_at DATETIME NOT NULL,
+    used_at DATETIME,
+    replaced_by BINARY(32),
+    UNIQUE KEY uk_refresh_tokens_hash (token_hash),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- 사용자별 토큰 무효화 시각 (app.auth-store.type=db, 서버 간 공유)
+CREATE TABLE token_revocations (
+    user_id INT PRIMARY KEY,
+    revoked_at BIGINT NOT NULL
+);
+
+-- 소셜 로그인 일회용 코드 (app.auth-store.type=db, 서버 간 공유)
+CREATE TABLE auth_codes (
+    code VARCHAR(36) PRIMARY KEY,
+    jwt VARCHAR(1000) NOT NULL,
+    expires_at DATETIME NOT NULL
+);
+
 -- 인덱스 추가
 CREATE INDEX idx_products_category ON products(category_id);
 CREATE INDEX idx_products_active ON products(is_active);
+CREATE INDEX idx_products_active_created ON products(is_active, created_at, id);
+CREATE INDEX idx_products_category_active_created ON products(category_id, is_active, created_at, id);
 CREATE INDEX idx_orders_user ON orders(user_id);
 CREATE INDEX idx_orders_status ON orders(status);
+CREATE INDEX idx_orders_created ON orders(created_at);
+CREATE INDEX idx_orders_status_hold ON orders(status, hold_expires_at, id);
 CREATE INDEX idx_order_items_order ON order_items(order_id);
+CREATE INDEX idx_payment_transactions_order ON payment_transactions(order_id, status);
+CREATE INDEX idx_payment_transactions_status ON payment_transactions(status, created_at);
+CREATE INDEX idx_idempotency_keys_expires ON idempotency_keys(expires_at);
+CREATE INDEX idx_refresh_tokens_user ON refresh_tokens(user_id);
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens(family_id);
+CREATE INDEX idx_refresh_tokens_expires ON refresh_tokens(expires_at);
+CREATE INDEX idx_token_revocations_revoked ON token_revocations(revoked_at);
+CREATE INDEX idx_auth_codes_expires ON auth_codes(expires_at);
+CREATE INDEX idx_sales_rollups_category ON sales_rollups(granularity, category_id, bucket_start);
@@ -2,8 +2,12 @@ package com.gugarden.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gugarden.entity.*;
+import com.gugarden.event.OrderStatusChangedEvent;
 import com.gugarden.repository.*;
 import com.gugarden.security.JwtTokenProvider;
+import com.gugarden.service.DashboardStatsService;
+import com.gugarden.service.SalesRollupService;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,11 +15,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.Map;
 
+import static com.gugarden.controller.OrderTestSupport.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -29,11 +39,16 @@ class AdminOrderApiTest {
     @Autowired private UserRepository userRepository;
     @Autowired private ProductRepository productRepository;
     @Autowired private CategoryRepository categoryRepository;
-    @Autowired private OrderRepository orderRepository;
+    @MockitoSpyBean private OrderRepository orderRepository;
     @Autowired private OrderItemRepository orderItemRepository;
+    @Autowired private PaymentTransactionRepository paymentTransactionRepository;
     @Autowired private JwtTokenProvider jwtTokenProvider;
+    @Autowired private EntityManager entityManager;
+    @Autowired private DashboardStatsService dashboardStatsService;
+    @Autowired private SalesRollupService salesRollupService;
 
     private String adminToken;
+    private Product product;
     private Order order;
 
     @BeforeEach
@@ -63,7 +78,7 @@ class AdminOrderApiTest {
                 .build();
         category = categoryRepository.save(category);
 
-        Product product = Product.builder()
+        product = Product.builder()
                 .category(category)
                 .name("관리자주문상품")
                 .slug("admin-order-product-" + System.currentTimeMillis())
@@ -106,6 +121,29 @@ class AdminOrderApiTest {
                 .andExpect(jsonPath("$.pagination").isMap());
     }
 
+    @Test
+    @DisplayName("관리자 주문 목록 - 주문 수가 늘어도 쿼리 수 동일 (N+1 없음)")
+    void getOrders_statementCount() throws Exception {
+        RequestBuilder request = get("/api/admin/orders").header("Authorization", "Bearer " + adminToken);
+        countStatements(mockMvc, entityManager, request, status().isOk());
+        long before = countStatements(mockMvc, entityManager, request, status().isOk());
+        assertThat(before).isPositive();
+
+        Order multiItemOrder = orderRepository.save(order(order.getUser(), 75000).build());
+        for (int i = 0; i < 3; i++) {
+            orderItemRepository.save(item(multiItemOrder, product, 1));
+        }
+        for (int i = 0; i < 4; i++) {
+            Order single = orderRepository.save(order(order.getUser(), 25000).build());
+            orderItemRepository.save(item(single, product, 1));
+        }
+
+        assertThat(countStatements(mockMvc, entityManager, request, status().isOk())).isEqualTo(before);
+        mockMvc.perform(request)
+                .andExpect(jsonPath("$.orders[?(@.id == " + multiItemOrder.getId() + ")].item_count").value(3))
+                .andExpect(jsonPath("$.orders[?(@.id == " + order.getId() + ")].item_count").value(1));
+    }
+
     @Test
     @DisplayName("관리자 주문 상세 조회 - 200")
     void getOrderDetail_success() throws Exception {
@@ -130,6 +168,136 @@ class AdminOrderApiTest {
                 .andExpect(jsonPath("$.status").value("paid"));
     }
 
+    @Test
+    @DisplayName("주문 상태 변경 - 결제 승인 처리 중이면 400, 재고 그대로")
+    void updateOrderStatus_paymentInFlight() throws Exception {
+        paymentTransactionRepository.save(PaymentTransaction.builder()
+                .orderId(order.getId())
+                .type(PaymentTransaction.Type.confirm)
+                .paymentKey("pay-in-flight")
+                .amount(order.getTotalAmount())
+                .build());
+
+        mockMvc.perform(put("/api/admin/orders/" + order.getId() + "/status")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("status", "cancelled"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("결제 처리 중인 주문입니다. 잠시 후 다시 시도해주세요."));
+
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(Order.OrderStatus.pending);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("대시보드 - 주문 상태 변경 이벤트로 집계 갱신, 보정 결과와 일치")
+    void getDashboard_counters() throws Exception {
+        dashboardStatsService.reconcile();
+        Map<String, Object> before = dashboardStatsService.getStats();
+        int pending = ((Number) before.get("pendingOrders")).intValue();
+        int totalRevenue = ((Number) before.get("totalRevenue")).intValue();
+        int todayRevenue = ((Number) before.get("todayRevenue")).intValue();
+
+        mockMvc.perform(put("/api/admin/orders/" + order.getId() + "/status")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("status", "paid"))))
+                .andExpect(status().isOk());
+        // 테스트 트랜잭션은 커밋되지 않으므로 커밋 이후 리스너를 직접 호출
+        dashboardStatsService.onOrderStatusChanged(OrderStatusChangedEvent.changed(order, Order.OrderStatus.pending));
+
+        mockMvc.perform(get("/api/admin/dashboard")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stats.pendingOrders").value(pending - 1))
+                .andExpect(jsonPath("$.stats.totalRevenue").value(totalRevenue + 50000))
+                .andExpect(jsonPath("$.stats.todayRevenue").value(todayRevenue + 50000));
+
+        Map<String, Object> counted = dashboardStatsService.getStats();
+        dashboardStatsService.reconcile();
+        assertThat(dashboardStatsService.getStats()).isEqualTo(counted);
+    }
+
+    @Test
+    @DisplayName("대시보드 - 재집계 도중 도착한 이벤트가 이미 스냅샷에 포함된 변경이면 다시 더하지 않음")
+    void getDashboard_eventDuringReconcile() {
+        dashboardStatsService.reconcile();
+        Map<String, Object> before = dashboardStatsService.getStats();
+
+        order.setStatus(Order.OrderStatus.paid);
+        orderRepository.saveAndFlush(order);
+        long pendingNow = orderRepository.countPending();
+        // 커밋은 스냅샷 전에 끝났지만 이벤트는 집계하는 동안 도착
+        doAnswer(invocation -> {
+            dashboardStatsService.onOrderStatusChanged(OrderStatusChangedEvent.changed(order, Order.OrderStatus.pending));
+            return pendingNow;
+        }).when(orderRepository).countPending();
+        dashboardStatsService.reconcile();
+
+        Map<String, Object> after = dashboardStatsService.getStats();
+        assertThat(((Number) after.get("pendingOrders")).longValue())
+                .isEqualTo(((Number) before.get("pendingOrders")).longValue() - 1);
+        assertThat(((Number) after.get("totalRevenue")).longValue())
+                .isEqualTo(((Number) before.get("totalRevenue")).longValue() + 50000);
+    }
+
+    @Test
+    @DisplayName("매출 시계열 - 결제 시 집계 증가, 취소 시 감소, 재생성 결과와 일치")
+    void getSalesSeries_rollup() throws Exception {
+        RequestBuilder request = get("/api/admin/analytics/sales")
+                .param("productId", product.getId().toString())
+                .header("Authorization", "Bearer " + adminToken);
+
+        mockMvc.perform(put("/api/admin/orders/" + order.getId() + "/status")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("status", "paid"))))
+                .andExpect(status().isOk());
+        // 테스트 트랜잭션은 커밋되지 않으므로 커밋 후 리스너와 반영을 직접 호출
+        salesRollupService.onOrderStatusChanged(OrderStatusChangedEvent.changed(order, Order.OrderStatus.pending));
+        salesRollupService.flushPending();
+
+        String today = LocalDate.now().toString();
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity").value("day"))
+                .andExpect(jsonPath("$.series.length()").value(30))
+                .andExpect(jsonPath("$.series[29].bucket").value(today + "T00:00:00"))
+                .andExpect(jsonPath("$.series[29].revenue").value(50000))
+                .andExpect(jsonPath("$.series[29].units").value(2))
+                .andExpect(jsonPath("$.totalRevenue").value(50000));
+        mockMvc.perform(get("/api/admin/analytics/sales")
+                        .param("granularity", "hour")
+                        .param("from", today)
+                        .param("categoryId", product.getCategory().getId().toString())
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.series.length()").value(24))
+                .andExpect(jsonPath("$.totalUnits").value(2));
+
+        salesRollupService.rebuild();
+        mockMvc.perform(request)
+                .andExpect(jsonPath("$.totalRevenue").value(50000))
+                .andExpect(jsonPath("$.totalUnits").value(2));
+
+        order.setStatus(Order.OrderStatus.cancelled);
+        salesRollupService.onOrderStatusChanged(OrderStatusChangedEvent.changed(order, Order.OrderStatus.paid));
+        salesRollupService.flushPending();
+        mockMvc.perform(request)
+                .andExpect(jsonPath("$.totalRevenue").value(0))
+                .andExpect(jsonPath("$.totalUnits").value(0));
+    }
+
+    @Test
+    @DisplayName("매출 시계열 - 잘못된 집계 단위 400")
+    void getSalesSeries_invalidGranularity() throws Exception {
+        mockMvc.perform(get("/api/admin/analytics/sales")
+                        .param("granularity", "week")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("집계 단위는 hour, day, month 중 하나여야 합니다."));
+    }
+
     @Test
     @DisplayName("잘못된 상태값으로 변경 시 400")
     void updateOrderStatus_invalidStatus() throws Exception {
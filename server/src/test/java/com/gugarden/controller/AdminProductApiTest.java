@@ -2,11 +2,15 @@ package com.gugarden.controller;
 
 import com.gugarden.entity.Category;
 import com.gugarden.entity.Product;
+import com.gugarden.entity.ProductStockShard;
 import com.gugarden.entity.User;
+import com.gugarden.event.ProductChangedEvent;
 import com.gugarden.repository.CategoryRepository;
 import com.gugarden.repository.ProductRepository;
+import com.gugarden.repository.ProductStockShardRepository;
 import com.gugarden.repository.UserRepository;
 import com.gugarden.security.JwtTokenProvider;
+import com.gugarden.service.ProductSearchService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,6 +21,9 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -40,6 +47,12 @@ class AdminProductApiTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductStockShardRepository productStockShardRepository;
+
     private String adminToken;
     private String userToken;
     private Category category;
@@ -112,6 +125,56 @@ class AdminProductApiTest {
                 .andExpect(jsonPath("$.pagination.limit").value(20));
     }
 
+    @Test
+    @DisplayName("상품 목록 검색 - 비활성 상품 포함, 상품명만 일치, 검색 결과 안에서 페이지")
+    void getProducts_search() throws Exception {
+        Product product = productRepository.save(Product.builder()
+                .category(category)
+                .name("관리자검색전용상품")
+                .slug("admin-search-" + System.currentTimeMillis())
+                .price(5000)
+                .stock(10)
+                .isActive(false)
+                .build());
+        Product newer = productRepository.save(Product.builder()
+                .category(category)
+                .name("관리자검색전용상품2")
+                .slug("admin-search-2-" + System.currentTimeMillis())
+                .price(5000)
+                .stock(10)
+                .build());
+        // 설명에만 검색어가 있는 상품은 관리자 검색(상품명 기준)에 나오지 않음
+        Product descriptionOnly = productRepository.save(Product.builder()
+                .category(category)
+                .name("관리자다른상품")
+                .slug("admin-search-desc-" + System.currentTimeMillis())
+                .description("검색전용 설명")
+                .price(5000)
+                .stock(10)
+                .build());
+        productSearchService.onProductChanged(ProductChangedEvent.saved(product));
+        productSearchService.onProductChanged(ProductChangedEvent.saved(newer));
+        productSearchService.onProductChanged(ProductChangedEvent.saved(descriptionOnly));
+
+        mockMvc.perform(get("/api/admin/products")
+                        .param("search", "검색전용")
+                        .param("category", category.getSlug())
+                        .param("limit", "1")
+                        .param("page", "2")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(1))
+                .andExpect(jsonPath("$.products[0].id").value(product.getId()))
+                .andExpect(jsonPath("$.pagination.total").value(2))
+                .andExpect(jsonPath("$.pagination.totalPages").value(2));
+
+        mockMvc.perform(get("/api/admin/products")
+                        .param("search", "없는검색어")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(0));
+    }
+
     @Test
     @DisplayName("상품 수정 성공 - 200 반환, 이름/가격 변경 확인")
     void updateProduct_success() throws Exception {
@@ -138,6 +201,65 @@ class AdminProductApiTest {
                 .andExpect(jsonPath("$.message").value("상품이 수정되었습니다."));
     }
 
+    @Test
+    @DisplayName("재고 샤드 설정/수정/해제 - 재고가 샤드에 고르게 나뉘고 합계 유지")
+    void configureStockShards() throws Exception {
+        Product product = productRepository.save(Product.builder()
+                .category(category)
+                .name("샤드상품")
+                .slug("shard-test-" + System.currentTimeMillis())
+                .price(10000)
+                .stock(10)
+                .build());
+
+        mockMvc.perform(put("/api/admin/products/" + product.getId() + "/stock-shards")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"shards\": 4}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.shards").value(4))
+                .andExpect(jsonPath("$.stock").value(10));
+        assertThat(shardStocks(product)).containsExactly(3, 3, 2, 2);
+
+        // 샤드 상품의 재고 수정은 샤드에 다시 분배
+        mockMvc.perform(multipart("/api/admin/products/" + product.getId())
+                        .param("stock", "7")
+                        .with(request -> {
+                            request.setMethod("PUT");
+                            return request;
+                        })
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.MULTIPART_FORM_DATA))
+                .andExpect(status().isOk());
+        assertThat(shardStocks(product)).containsExactly(2, 2, 2, 1);
+
+        mockMvc.perform(put("/api/admin/products/" + product.getId() + "/stock-shards")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"shards\": 0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(7));
+        assertThat(shardStocks(product)).isEmpty();
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStockShards()).isZero();
+    }
+
+    @Test
+    @DisplayName("재고 샤드 수 범위 초과 시 400")
+    void configureStockShards_invalid() throws Exception {
+        mockMvc.perform(put("/api/admin/products/1/stock-shards")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"shards\": 65}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("샤드 수는 0~64 사이여야 합니다."));
+    }
+
+    private List<Integer> shardStocks(Product product) {
+        return productStockShardRepository.findAllForUpdate(product.getId()).stream()
+                .map(ProductStockShard::getStock)
+                .toList();
+    }
+
     @Test
     @DisplayName("상품 삭제 성공 (주문 없음) - 200 반환, 실제 삭제 확인")
     void deleteProduct_success() throws Exception {
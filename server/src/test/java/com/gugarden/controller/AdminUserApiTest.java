@@ -0,0 +1,99 @@
+package com.gugarden.controller;
+
+import com.gugarden.entity.Order;
+import com.gugarden.entity.User;
+import com.gugarden.repository.OrderRepository;
+import com.gugarden.repository.UserRepository;
+import com.gugarden.security.JwtTokenProvider;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import static com.gugarden.controller.OrderTestSupport.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class AdminUserApiTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private JwtTokenProvider jwtTokenProvider;
+    @Autowired private EntityManager entityManager;
+
+    private String adminToken;
+    private User buyer;
+
+    @BeforeEach
+    void setUp() {
+        User admin = userRepository.save(User.builder()
+                .email("admin-user-test@test.com")
+                .password("password")
+                .name("관리자")
+                .role(User.Role.admin)
+                .build());
+        adminToken = jwtTokenProvider.generateToken(admin.getId(), admin.getEmail(), "admin");
+
+        buyer = createBuyer(0);
+        createOrder(buyer, 30000, Order.OrderStatus.paid);
+        createOrder(buyer, 20000, Order.OrderStatus.delivered);
+        createOrder(buyer, 50000, Order.OrderStatus.cancelled);
+    }
+
+    private User createBuyer(int index) {
+        return userRepository.save(User.builder()
+                .email("user-stats-" + index + "@test.com")
+                .password("password")
+                .name("통계회원" + index)
+                .build());
+    }
+
+    private void createOrder(User user, int totalAmount, Order.OrderStatus status) {
+        orderRepository.save(order(user, totalAmount).status(status).build());
+    }
+
+    @Test
+    @DisplayName("회원 목록 조회 - 주문 수/총 구매액(취소 제외) 포함")
+    void getUsers_orderStats() throws Exception {
+        mockMvc.perform(get("/api/admin/users")
+                        .param("search", "통계회원")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(1))
+                .andExpect(jsonPath("$.users[0].id").value(buyer.getId()))
+                .andExpect(jsonPath("$.users[0].order_count").value(3))
+                .andExpect(jsonPath("$.users[0].total_spent").value(50000))
+                .andExpect(jsonPath("$.pagination.total").value(1));
+    }
+
+    @Test
+    @DisplayName("회원 목록 - 회원 수가 늘어도 쿼리 수 동일 (N+1 없음)")
+    void getUsers_statementCount() throws Exception {
+        RequestBuilder request = get("/api/admin/users")
+                .param("search", "통계회원")
+                .header("Authorization", "Bearer " + adminToken);
+        countStatements(mockMvc, entityManager, request, status().isOk());
+        long before = countStatements(mockMvc, entityManager, request, status().isOk());
+        assertThat(before).isPositive();
+
+        for (int i = 1; i <= 4; i++) {
+            User user = createBuyer(i);
+            createOrder(user, 10000, Order.OrderStatus.paid);
+        }
+
+        assertThat(countStatements(mockMvc, entityManager, request, status().isOk())).isEqualTo(before);
+        mockMvc.perform(request)
+                .andExpect(jsonPath("$.users.length()").value(5));
+    }
+}
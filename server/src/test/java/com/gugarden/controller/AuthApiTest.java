@@ -1,22 +1,39 @@
 package com.gugarden.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gugarden.config.ExpiryWheel;
+import com.gugarden.entity.RefreshToken;
 import com.gugarden.entity.User;
+import com.gugarden.repository.RefreshTokenRepository;
 import com.gugarden.repository.UserRepository;
 import com.gugarden.security.JwtTokenProvider;
+import com.gugarden.service.RefreshTokenService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.http.Cookie;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -29,7 +46,13 @@ class AuthApiTest {
     @Autowired private ObjectMapper objectMapper;
     @Autowired private UserRepository userRepository;
     @Autowired private JwtTokenProvider jwtTokenProvider;
+    @Autowired private ExpiryWheel expiryWheel;
     @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private RefreshTokenService refreshTokenService;
+    @Autowired private RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${app.jwt.secret}")
+    private String jwtSecret;
 
     private User existingUser;
     private String userToken;
@@ -169,4 +192,177 @@ class AuthApiTest {
         mockMvc.perform(get("/api/auth/me"))
                 .andExpect(status().isForbidden());
     }
+
+    @Test
+    @DisplayName("토큰 검증 캐시 - 같은 토큰은 서명을 한 번만 검증, 변조된 토큰은 거부")
+    void jwtCache_verifiesOncePerToken() throws Exception {
+        mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk());
+        long misses = (Long) jwtTokenProvider.getCacheStats().get("misses");
+        long hits = (Long) jwtTokenProvider.getCacheStats().get("hits");
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + userToken))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.user.email").value("auth-test@test.com"));
+        }
+        assertThat(jwtTokenProvider.getCacheStats().get("misses")).isEqualTo(misses);
+        assertThat((Long) jwtTokenProvider.getCacheStats().get("hits")).isGreaterThanOrEqualTo(hits + 3);
+
+        // 캐시된 토큰과 서명만 다른 토큰
+        char last = userToken.charAt(userToken.length() - 2);
+        String tampered = userToken.substring(0, userToken.length() - 2) + (last == 'A' ? 'B' : 'A')
+                + userToken.charAt(userToken.length() - 1);
+        mockMvc.perform(get("/api/auth/me").header("Authorization", "Bearer " + tampered))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("토큰 검증 캐시 - 가득 차면 새 토큰은 검증만 하고 캐시하지 않음")
+    void jwtCache_full_skipsCaching() {
+        JwtTokenProvider provider = new JwtTokenProvider(jwtSecret, 900_000, 1, expiryWheel);
+        String first = provider.generateToken(1, "first@test.com", "user");
+        String second = provider.generateToken(2, "second@test.com", "user");
+
+        assertThat(provider.verify(first)).isNotNull();
+        assertThat(provider.verify(second).principal().getId()).isEqualTo(2);
+        assertThat(provider.verify(first)).isNotNull();
+
+        Map<String, Object> stats = provider.getCacheStats();
+        assertThat(stats.get("size")).isEqualTo(1);
+        assertThat(stats.get("rejected")).isEqualTo(1L);
+        assertThat(stats.get("hits")).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("토큰 갱신 - 리프레시 토큰 회전, 다른 서버로 간 동시 갱신은 유예, 유예 후 재사용 시 세션 폐기")
+    void refresh_rotatesAndDetectsReuse() throws Exception {
+        MvcResult login = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("email", "auth-test@test.com", "password", "password123"))))
+                .andExpect(status().isOk())
+                .andExpect(cookie().httpOnly("refresh_token", true))
+                .andExpect(cookie().path("refresh_token", "/api/auth"))
+                .andReturn();
+        String first = login.getResponse().getCookie("refresh_token").getValue();
+
+        MvcResult refreshed = mockMvc.perform(post("/api/auth/refresh").cookie(new Cookie("refresh_token", first)))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists("auth_token"))
+                .andReturn();
+        String second = refreshed.getResponse().getCookie("refresh_token").getValue();
+        assertThat(second).isNotEqualTo(first);
+
+        // 다른 탭의 동시 갱신이 다른 서버로 감 (메모리 결과 없음) — 유예 시간 안이면 같은 묶음에 새 토큰 발급
+        Object target = AopTestUtils.getTargetObject(refreshTokenService);
+        ReflectionTestUtils.setField(target, "recentRotations", new ConcurrentHashMap<>());
+        MvcResult sibling = mockMvc.perform(post("/api/auth/refresh").cookie(new Cookie("refresh_token", first)))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(sibling.getResponse().getCookie("refresh_token").getValue()).isNotIn(first, second);
+
+        // 유예 시간이 지난 뒤 회전된 토큰 재사용 → 같은 로그인의 토큰 모두 폐기
+        for (RefreshToken used : refreshTokenRepository.findAll()) {
+            if (used.getUsedAt() != null) {
+                used.setUsedAt(LocalDateTime.now().minusMinutes(1));
+                refreshTokenRepository.saveAndFlush(used);
+            }
+        }
+        mockMvc.perform(post("/api/auth/refresh").cookie(new Cookie("refresh_token", first)))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/auth/refresh").cookie(new Cookie("refresh_token", second)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("토큰 갱신 - 만료된 액세스 토큰은 공개 경로에서 비로그인 처리, 갱신 가능, 로그아웃 후에는 유예 중인 이전 토큰도 401")
+    void refresh_withExpiredAccessToken_andLogout() throws Exception {
+        String refreshToken = refreshTokenService.issue(existingUser.getId());
+        Date past = new Date(System.currentTimeMillis() - 60_000);
+        String expired = Jwts.builder()
+                .claim("id", existingUser.getId())
+                .claim("email", existingUser.getEmail())
+                .claim("role", "user")
+                .issuedAt(new Date(past.getTime() - 60_000))
+                .expiration(past)
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        mockMvc.perform(get("/api/auth/me").cookie(new Cookie("auth_token", expired)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.error").value("토큰이 만료되었습니다."));
+        // 공개 경로는 만료된 쿠키가 남아 있어도 비로그인으로 응답
+        mockMvc.perform(get("/api/products").cookie(new Cookie("auth_token", expired)))
+                .andExpect(status().isOk());
+
+        MvcResult refreshed = mockMvc.perform(post("/api/auth/refresh")
+                        .cookie(new Cookie("auth_token", expired), new Cookie("refresh_token", refreshToken)))
+                .andExpect(status().isOk())
+                .andReturn();
+        String accessToken = refreshed.getResponse().getCookie("auth_token").getValue();
+        String rotated = refreshed.getResponse().getCookie("refresh_token").getValue();
+
+        mockMvc.perform(get("/api/auth/me").cookie(new Cookie("auth_token", accessToken)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/logout").cookie(new Cookie("refresh_token", rotated)))
+                .andExpect(status().isOk())
+                .andExpect(cookie().maxAge("refresh_token", 0));
+        mockMvc.perform(post("/api/auth/refresh").cookie(new Cookie("refresh_token", rotated)))
+                .andExpect(status().isUnauthorized());
+        // 회전 유예 시간 안이라도 로그아웃한 세션의 이전 토큰으로는 갱신되지 않음
+        mockMvc.perform(post("/api/auth/refresh").cookie(new Cookie("refresh_token", refreshToken)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("로그인 요청 제한 - 계정별 한도를 넘으면 429, Retry-After")
+    void login_perAccountLimit_tooManyRequests() throws Exception {
+        // 다른 테스트와 한도를 나눠 쓰지 않도록 이 테스트 전용 계정 (없는 계정도 똑같이 센다)
+        String body = objectMapper.writeValueAsString(Map.of("email", "throttle-test@test.com", "password", "wrong-password"));
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(post("/api/auth/login")
+                            .with(r -> { r.setRemoteAddr("10.20.30.40"); return r; })
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(post("/api/auth/login")
+                        .with(r -> { r.setRemoteAddr("10.20.30.41"); return r; })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "60"));
+    }
+
+    @Test
+    @DisplayName("로그인 요청 제한 - 계정 한도는 실패만 세므로 성공한 로그인은 막히지 않음")
+    void login_perAccountLimit_countsFailuresOnly() throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("email", "auth-test@test.com", "password", "password123"));
+        for (int i = 0; i < 12; i++) {
+            String ip = "10.20.31." + i;
+            mockMvc.perform(post("/api/auth/login")
+                            .with(r -> { r.setRemoteAddr(ip); return r; })
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    @DisplayName("로그인 성공 시 낮은 비용의 비밀번호 해시를 설정 비용으로 교체")
+    void login_upgradesWeakHash() throws Exception {
+        existingUser.setPassword(new BCryptPasswordEncoder(4).encode("password123"));
+        userRepository.save(existingUser);
+
+        mockMvc.perform(post("/api/auth/login")
+                        .with(r -> { r.setRemoteAddr("10.20.30.50"); return r; })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("email", "auth-test@test.com", "password", "password123"))))
+                .andExpect(status().isOk());
+
+        String stored = userRepository.findById(existingUser.getId()).orElseThrow().getPassword();
+        assertThat(stored).startsWith("$2a$10$");
+        assertThat(passwordEncoder.matches("password123", stored)).isTrue();
+    }
 }
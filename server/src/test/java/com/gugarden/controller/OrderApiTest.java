@@ -4,6 +4,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gugarden.entity.*;
 import com.gugarden.repository.*;
 import com.gugarden.security.JwtTokenProvider;
+import com.gugarden.service.IdempotencyService;
+import com.gugarden.service.InventoryService;
+import com.gugarden.service.OrderHoldSweeper;
+import com.gugarden.service.OrderNumberGenerator;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,12 +16,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static com.gugarden.controller.OrderTestSupport.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -31,7 +51,16 @@ class OrderApiTest {
     @Autowired private ProductRepository productRepository;
     @Autowired private CategoryRepository categoryRepository;
     @Autowired private CartItemRepository cartItemRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderItemRepository orderItemRepository;
+    @Autowired private EntityManager entityManager;
     @Autowired private JwtTokenProvider jwtTokenProvider;
+    @Autowired private InventoryService inventoryService;
+    @Autowired private ProductStockShardRepository productStockShardRepository;
+    @Autowired private OrderHoldSweeper orderHoldSweeper;
+    @Autowired private OrderNumberGenerator orderNumberGenerator;
+    @Autowired private IdempotencyKeyRepository idempotencyKeyRepository;
+    @Autowired private IdempotencyService idempotencyService;
 
     private User user;
     private User otherUser;
@@ -103,6 +132,281 @@ class OrderApiTest {
                 .andExpect(jsonPath("$.totalAmount").isNumber());
     }
 
+    @Test
+    @DisplayName("주문번호 - 동시에 생성해도 중복 없음, GG + 오늘 날짜로 시작")
+    void orderNumber_uniqueUnderConcurrency() throws Exception {
+        int threads = 8;
+        int perThread = 5000;
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        numbers.add(orderNumberGenerator.next());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(numbers).hasSize(threads * perThread);
+        String today = "GG" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyMMdd"));
+        assertThat(orderNumberGenerator.next()).hasSize(15).startsWith(today);
+    }
+
+    @Test
+    @DisplayName("주문번호 - 재시작 시 이 노드가 마지막으로 저장한 번호 뒤부터 발급")
+    void orderNumber_resumesAfterPersistedNumberOnRestart() {
+        AtomicLong lastTick = (AtomicLong) ReflectionTestUtils.getField(orderNumberGenerator, "lastTick");
+        long saved = lastTick.get();
+        try {
+            char node = orderNumberGenerator.next().charAt(8);
+            String tomorrow = LocalDate.now().plusDays(1).format(DateTimeFormatter.ofPattern("yyMMdd"));
+            String persisted = "GG" + tomorrow + node + "00000A";
+            orderRepository.save(order(user, 30000).orderNumber(persisted).build());
+
+            lastTick.set(0);
+            orderNumberGenerator.init();
+
+            assertThat(orderNumberGenerator.next()).isGreaterThan(persisted).startsWith("GG" + tomorrow + node);
+        } finally {
+            lastTick.set(saved);
+        }
+    }
+
+    @Test
+    @DisplayName("주문 생성 - 주문 상품 수가 늘어도 쿼리 수 동일 (상품 INSERT/재고 UPDATE 일괄 처리)")
+    void createOrder_statementCount() throws Exception {
+        RequestBuilder request = post("/api/orders")
+                .header("Authorization", "Bearer " + userToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "recipientName", "홍길동",
+                        "recipientPhone", "010-1111-2222",
+                        "recipientAddress", "서울시 강남구",
+                        "recipientZipcode", "06100",
+                        "paymentMethod", "naverpay")));
+        long singleLine = countStatements(mockMvc, entityManager, request, status().isCreated());
+        assertThat(singleLine).isPositive();
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Product p = productRepository.save(Product.builder()
+                    .category(product.getCategory())
+                    .name("일괄주문상품" + i)
+                    .slug("batch-order-product-" + i + "-" + System.nanoTime())
+                    .price(10000)
+                    .stock(10)
+                    .build());
+            cartItemRepository.save(CartItem.builder().user(user).product(p).quantity(i + 1).build());
+            products.add(p);
+        }
+
+        assertThat(countStatements(mockMvc, entityManager, request, status().isCreated())).isEqualTo(singleLine);
+
+        entityManager.clear();
+        Order latest = orderRepository.findByUserIdOrderByCreatedAtDesc(user.getId()).get(0);
+        assertThat(orderItemRepository.findByOrderIdWithProduct(latest.getId())).hasSize(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(productRepository.findById(products.get(i).getId()).orElseThrow().getStock()).isEqualTo(10 - (i + 1));
+        }
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(48);
+    }
+
+    @Test
+    @DisplayName("주문 생성 (재고 샤드 모드) - 샤드에서 차감, 단일 샤드로 부족하면 재분배, 합계 초과 시 400")
+    void createOrder_shardedStock() throws Exception {
+        inventoryService.configureShards(product.getId(), 4);
+        assertThat(shardStocks()).containsExactly(13, 13, 12, 12);
+
+        checkout().andExpect(status().isCreated());
+        assertThat(shardStocks().stream().mapToInt(Integer::intValue).sum()).isEqualTo(48);
+        inventoryService.syncShardedStock();
+        assertThat(productRepository.findStockByIdIn(List.of(product.getId())).get(0)[2]).isEqualTo(48);
+
+        // 어느 샤드도 20개를 혼자 감당하지 못함 → 전체 샤드에서 차감 후 재분배
+        entityManager.flush(); // 이전 주문의 장바구니 삭제를 먼저 반영
+        cartItemRepository.save(CartItem.builder().user(user).product(product).quantity(20).build());
+        checkout().andExpect(status().isCreated());
+        assertThat(shardStocks()).containsExactly(7, 7, 7, 7);
+
+        entityManager.flush();
+        cartItemRepository.save(CartItem.builder().user(user).product(product).quantity(29).build());
+        checkout().andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("주문테스트상품의 재고가 부족합니다."));
+        assertThat(shardStocks()).containsExactly(7, 7, 7, 7);
+    }
+
+    @Test
+    @DisplayName("결제 기한 만료 - (기한, ID) 커서로 배치를 넘겨 같은 기한의 주문까지 모두 취소")
+    void expiredHold_keysetAcrossBatches() {
+        LocalDateTime tie = LocalDateTime.now().minusMinutes(2).withNano(0);
+        List<Integer> ids = new ArrayList<>();
+        for (LocalDateTime holdExpiresAt : List.of(tie, tie.minusMinutes(3), tie)) {
+            ids.add(orderRepository.save(Order.builder()
+                    .user(user)
+                    .orderNumber("HOLD-" + System.nanoTime())
+                    .totalAmount(10000)
+                    .recipientName("홍길동")
+                    .recipientPhone("010-1111-2222")
+                    .recipientAddress("서울시 강남구")
+                    .holdExpiresAt(holdExpiresAt)
+                    .build()).getId());
+        }
+        entityManager.flush();
+
+        Object batchSize = ReflectionTestUtils.getField(orderHoldSweeper, "batchSize");
+        ReflectionTestUtils.setField(orderHoldSweeper, "batchSize", 1);
+        try {
+            assertThat(orderHoldSweeper.sweepExpiredHolds()).isGreaterThanOrEqualTo(3);
+        } finally {
+            ReflectionTestUtils.setField(orderHoldSweeper, "batchSize", batchSize);
+        }
+        entityManager.clear();
+        assertThat(orderRepository.findAllById(ids))
+                .extracting(Order::getStatus)
+                .containsOnly(Order.OrderStatus.cancelled);
+    }
+
+    @Test
+    @DisplayName("결제 기한 만료 - 주문 자동 취소 + 재고 복구, 이후 결제 승인은 400")
+    void expiredHold_cancelsOrderAndRestoresStock() throws Exception {
+        MvcResult created = checkout().andExpect(status().isCreated())
+                .andExpect(jsonPath("$.holdExpiresAt").isNotEmpty())
+                .andReturn();
+        Integer orderId = objectMapper.readTree(created.getResponse().getContentAsString()).get("orderId").asInt();
+        entityManager.clear();
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(48);
+
+        // 기한 전에는 그대로
+        orderHoldSweeper.sweepExpiredHolds();
+        assertThat(orderRepository.findById(orderId).orElseThrow().getStatus()).isEqualTo(Order.OrderStatus.pending);
+
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        order.setHoldExpiresAt(LocalDateTime.now().minusMinutes(1));
+        orderRepository.saveAndFlush(order);
+
+        orderHoldSweeper.sweepExpiredHolds();
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(orderRepository.findById(orderId).orElseThrow().getStatus()).isEqualTo(Order.OrderStatus.cancelled);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isEqualTo(50);
+
+        mockMvc.perform(post("/api/payments/approve")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("orderId", orderId))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("결제 기한이 지나 취소된 주문입니다."));
+    }
+
+    @Test
+    @DisplayName("주문 생성 (Idempotency-Key) - 같은 키로 재시도하면 처음 응답 재전송, 주문은 1건")
+    void createOrder_idempotencyKey() throws Exception {
+        String key = UUID.randomUUID().toString();
+        MvcResult first = checkout(key).andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn();
+        Integer orderId = objectMapper.readTree(first.getResponse().getContentAsString()).get("orderId").asInt();
+
+        checkout(key).andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.orderId").value(orderId));
+        assertThat(orderRepository.findByUserIdOrderByCreatedAtDesc(user.getId())).hasSize(1);
+
+        // 키 없이 재시도하면 새 요청으로 처리 (장바구니가 비어 있음)
+        checkout().andExpect(status().isBadRequest());
+
+        // 같은 키를 다른 요청에 사용
+        mockMvc.perform(post("/api/payments/toss/confirm")
+                        .header("Authorization", "Bearer " + userToken)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("orderId", orderId))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("다른 요청에 사용된 Idempotency-Key입니다."));
+    }
+
+    @Test
+    @DisplayName("주문 생성 (Idempotency-Key) - 같은 키를 본문이 다른 요청에 쓰면 400")
+    void createOrder_idempotencyKey_differentBody() throws Exception {
+        String key = UUID.randomUUID().toString();
+        checkout(key).andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/orders")
+                        .header("Authorization", "Bearer " + userToken)
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "recipientName", "김철수",
+                                "recipientPhone", "010-1111-2222",
+                                "recipientAddress", "서울시 강남구",
+                                "recipientZipcode", "06100",
+                                "paymentMethod", "naverpay"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("다른 요청에 사용된 Idempotency-Key입니다."));
+    }
+
+    @Test
+    @DisplayName("주문 생성 (Idempotency-Key) - 처리 중 표시가 임대 시간 안이면 409, 지나면 이어받아 처리")
+    void createOrder_idempotencyKey_abandonedInFlight() throws Exception {
+        String key = UUID.randomUUID().toString();
+        checkout(key).andExpect(status().isCreated());
+
+        // 응답 저장 전에 서버가 죽은 상태로 되돌림 (다른 서버에서 받은 재시도라 메모리에도 없음)
+        IdempotencyKey row = idempotencyKeyRepository.findByUserIdAndIdemKey(user.getId(), key).orElseThrow();
+        row.setResponseStatus(null);
+        row.setResponseBody(null);
+        row.setLeaseUntil(LocalDateTime.now().plusMinutes(1));
+        idempotencyKeyRepository.saveAndFlush(row);
+        ((Map<?, ?>) ReflectionTestUtils.getField(idempotencyService, "entries")).clear();
+
+        checkout(key).andExpect(status().isConflict());
+
+        row.setLeaseUntil(LocalDateTime.now().minusSeconds(1));
+        idempotencyKeyRepository.saveAndFlush(row);
+        ((Map<?, ?>) ReflectionTestUtils.getField(idempotencyService, "entries")).clear();
+        cartItemRepository.save(CartItem.builder().user(user).product(product).quantity(1).build());
+
+        checkout(key).andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        checkout(key).andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"));
+        assertThat(orderRepository.findByUserIdOrderByCreatedAtDesc(user.getId())).hasSize(2);
+    }
+
+    private ResultActions checkout() throws Exception {
+        return checkout(null);
+    }
+
+    private ResultActions checkout(String idempotencyKey) throws Exception {
+        MockHttpServletRequestBuilder request = post("/api/orders")
+                .header("Authorization", "Bearer " + userToken);
+        if (idempotencyKey != null) {
+            request.header("Idempotency-Key", idempotencyKey);
+        }
+        return mockMvc.perform(request
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "recipientName", "홍길동",
+                        "recipientPhone", "010-1111-2222",
+                        "recipientAddress", "서울시 강남구",
+                        "recipientZipcode", "06100",
+                        "paymentMethod", "naverpay"))));
+    }
+
+    private List<Integer> shardStocks() {
+        return productStockShardRepository.findAllForUpdate(product.getId()).stream()
+                .map(ProductStockShard::getStock)
+                .toList();
+    }
+
     @Test
     @DisplayName("주문 목록 조회 - 200, orders 배열")
     void getOrders_success() throws Exception {
@@ -112,6 +416,34 @@ class OrderApiTest {
                 .andExpect(jsonPath("$.orders").isArray());
     }
 
+    @Test
+    @DisplayName("주문 목록 - 주문 수가 늘어도 쿼리 수 동일 (N+1 없음)")
+    void getOrders_statementCount() throws Exception {
+        RequestBuilder request = get("/api/orders").header("Authorization", "Bearer " + userToken);
+        createOrder(1);
+        countStatements(mockMvc, entityManager, request, status().isOk());
+        long before = countStatements(mockMvc, entityManager, request, status().isOk());
+        assertThat(before).isPositive();
+
+        Order multiItemOrder = createOrder(3);
+        for (int i = 0; i < 4; i++) {
+            createOrder(1);
+        }
+
+        assertThat(countStatements(mockMvc, entityManager, request, status().isOk())).isEqualTo(before);
+        mockMvc.perform(request)
+                .andExpect(jsonPath("$.orders.length()").value(6))
+                .andExpect(jsonPath("$.orders[?(@.id == " + multiItemOrder.getId() + ")].item_count").value(3));
+    }
+
+    private Order createOrder(int itemCount) {
+        Order created = orderRepository.save(order(user, 30000 * itemCount).build());
+        for (int i = 0; i < itemCount; i++) {
+            orderItemRepository.save(item(created, product, 1));
+        }
+        return created;
+    }
+
     @Test
     @DisplayName("주문 상세 조회 - 200")
     void getOrderDetail_success() throws Exception {
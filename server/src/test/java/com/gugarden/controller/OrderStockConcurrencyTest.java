@@ -0,0 +1,178 @@
+package com.gugarden.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gugarden.entity.*;
+import com.gugarden.repository.*;
+import com.gugarden.security.JwtTokenProvider;
+import com.gugarden.service.InventoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * 동시 주문 재고 차감 검증. 각 주문이 실제로 커밋되어야 하므로 테스트 트랜잭션을 쓰지 않고 직접 정리한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderStockConcurrencyTest {
+
+    private static final int STOCK = 20;
+    private static final int BUYERS = 100;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private CartItemRepository cartItemRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderItemRepository orderItemRepository;
+    @Autowired private JwtTokenProvider jwtTokenProvider;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private InventoryService inventoryService;
+    @Autowired private ProductStockShardRepository productStockShardRepository;
+
+    private Category category;
+    private Product product;
+    private final List<User> buyers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(Category.builder()
+                .name("동시주문카테고리")
+                .slug("concurrency-cat-" + System.currentTimeMillis())
+                .build());
+        product = productRepository.save(Product.builder()
+                .category(category)
+                .name("한정수량상품")
+                .slug("concurrency-product-" + System.currentTimeMillis())
+                .price(10000)
+                .stock(STOCK)
+                .build());
+
+        for (int i = 0; i < BUYERS; i++) {
+            User buyer = userRepository.save(User.builder()
+                    .email("concurrency-" + i + "@test.com")
+                    .password("password")
+                    .name("동시구매자" + i)
+                    .build());
+            cartItemRepository.save(CartItem.builder().user(buyer).product(product).quantity(1).build());
+            buyers.add(buyer);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (User buyer : buyers) {
+                List<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(buyer.getId());
+                for (Order order : orders) {
+                    orderItemRepository.deleteAll(orderItemRepository.findByOrderIdWithProduct(order.getId()));
+                }
+                orderRepository.deleteAll(orders);
+                cartItemRepository.deleteByUserId(buyer.getId());
+            }
+            userRepository.deleteAll(buyers);
+            productStockShardRepository.deleteByProductId(product.getId());
+            productRepository.deleteById(product.getId());
+            categoryRepository.deleteById(category.getId());
+        });
+    }
+
+    @Test
+    @DisplayName("동시 주문 - 재고 수만큼만 성공, 재고는 음수가 되지 않음")
+    void createOrder_concurrent_noOversell() throws Exception {
+        List<Integer> statuses = checkoutAll();
+
+        assertThat(statuses).filteredOn(status -> status == 201).hasSize(STOCK);
+        assertThat(statuses).filteredOn(status -> status == 400).hasSize(BUYERS - STOCK);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getStock()).isZero();
+        assertThat(orderCount()).isEqualTo(STOCK);
+    }
+
+    @Test
+    @DisplayName("동시 주문 중 재고 샤드 설정/해제 반복 - 주문된 수량 + 남은 재고 = 처음 재고")
+    void createOrder_concurrent_whileTogglingShards() throws Exception {
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger toggles = new AtomicInteger();
+        ExecutorService admin = Executors.newSingleThreadExecutor();
+        Future<?> toggler = admin.submit(() -> {
+            while (!done.get()) {
+                inventoryService.configureShards(product.getId(), toggles.getAndIncrement() % 2 == 0 ? 4 : 0);
+            }
+        });
+        List<Integer> statuses;
+        try {
+            statuses = checkoutAll();
+        } finally {
+            done.set(true);
+            toggler.get(60, TimeUnit.SECONDS);
+            admin.shutdownNow();
+        }
+        // 샤드를 해제해 남은 재고를 products.stock으로 모은다
+        inventoryService.configureShards(product.getId(), 0);
+
+        assertThat(toggles.get()).isGreaterThan(1);
+        int remaining = productRepository.findById(product.getId()).orElseThrow().getStock();
+        assertThat(remaining).isNotNegative();
+        assertThat(orderCount()).isEqualTo(STOCK - remaining);
+        assertThat(statuses).filteredOn(status -> status == 201).hasSize(STOCK - remaining);
+    }
+
+    // 구매자 전원이 동시에 주문하고 응답 상태 코드를 모은다
+    private List<Integer> checkoutAll() throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of(
+                "recipientName", "홍길동",
+                "recipientPhone", "010-1111-2222",
+                "recipientAddress", "서울시 강남구",
+                "recipientZipcode", "06100",
+                "paymentMethod", "naverpay"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (User buyer : buyers) {
+                String token = jwtTokenProvider.generateToken(buyer.getId(), buyer.getEmail(), "user");
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/orders")
+                                    .header("Authorization", "Bearer " + token)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+            List<Integer> statuses = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                statuses.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long orderCount() {
+        return buyers.stream()
+                .mapToLong(b -> orderRepository.findByUserIdOrderByCreatedAtDesc(b.getId()).size())
+                .sum();
+    }
+}
@@ -0,0 +1,59 @@
+package com.gugarden.controller;
+
+import com.gugarden.entity.Order;
+import com.gugarden.entity.OrderItem;
+import com.gugarden.entity.Product;
+import com.gugarden.entity.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * 주문/회원 목록 테스트 공용: 주문 픽스처와 요청 한 번에 실행된 SQL 문 수 측정 (N+1 확인용).
+ */
+final class OrderTestSupport {
+
+    private OrderTestSupport() {
+    }
+
+    // 배송 정보가 채워진 주문 빌더 (주문번호는 매번 다름)
+    static Order.OrderBuilder order(User user, int totalAmount) {
+        return Order.builder()
+                .user(user)
+                .orderNumber("GG" + System.nanoTime())
+                .totalAmount(totalAmount)
+                .shippingFee(3000)
+                .recipientName("홍길동")
+                .recipientPhone("010-1234-5678")
+                .recipientAddress("서울시 강남구")
+                .paymentMethod("naverpay");
+    }
+
+    static OrderItem item(Order order, Product product, int quantity) {
+        return OrderItem.builder()
+                .order(order)
+                .product(product)
+                .productName(product.getName())
+                .productPrice(product.getPrice())
+                .quantity(quantity)
+                .build();
+    }
+
+    // 요청 한 번에 실행된 SQL 문 수 (대기 중인 쓰기는 먼저 반영해 세지 않는다)
+    static long countStatements(MockMvc mockMvc, EntityManager entityManager,
+                                RequestBuilder request, ResultMatcher expected) throws Exception {
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            mockMvc.perform(request).andExpect(expected);
+            return statistics.getPrepareStatementCount();
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+}
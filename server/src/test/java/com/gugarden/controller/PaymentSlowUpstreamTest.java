@@ -0,0 +1,261 @@
+package com.gugarden.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gugarden.config.OutboundHttpGuard;
+import com.gugarden.entity.Order;
+import com.gugarden.entity.PaymentTransaction;
+import com.gugarden.entity.User;
+import com.gugarden.repository.OrderRepository;
+import com.gugarden.repository.PaymentTransactionRepository;
+import com.gugarden.repository.UserRepository;
+import com.gugarden.security.JwtTokenProvider;
+import com.gugarden.service.PaymentService;
+import com.sun.net.httpserver.HttpServer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 느리거나 장애가 난 PG에 대한 결제 승인 동작 검증 (로컬 스텁 PG 사용).
+ * 각 요청이 실제로 커밋되어야 하므로 테스트 트랜잭션을 쓰지 않고 직접 정리한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PaymentSlowUpstreamTest {
+
+    private static final int CONCURRENT = 12;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private PaymentTransactionRepository paymentTransactionRepository;
+    @Autowired private JwtTokenProvider jwtTokenProvider;
+    @Autowired private PaymentService paymentService;
+    @Autowired private DataSource dataSource;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private OutboundHttpGuard outboundHttpGuard;
+
+    private HttpServer stubPg;
+    private ExecutorService stubExecutor;
+    private final CountDownLatch arrived = new CountDownLatch(CONCURRENT);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger received = new AtomicInteger();
+    private volatile boolean failing;
+
+    private User user;
+    private final List<Order> orders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stubPg = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubPg.createContext("/v1/payments/confirm", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            received.incrementAndGet();
+            if (failing) {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+                return;
+            }
+            arrived.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"status\":\"DONE\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        // 결제 조회: 승인 요청이 토스에 닿지 않은 결제
+        stubPg.createContext("/v1/payments/", exchange -> {
+            byte[] body = "{\"status\":\"IN_PROGRESS\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        stubExecutor = Executors.newFixedThreadPool(CONCURRENT);
+        stubPg.setExecutor(stubExecutor);
+        stubPg.start();
+
+        Object target = AopTestUtils.getTargetObject(paymentService);
+        ReflectionTestUtils.setField(target, "tossSecretKey", "test_sk_stub");
+        ReflectionTestUtils.setField(target, "tossApiUrl", "http://localhost:" + stubPg.getAddress().getPort());
+
+        user = userRepository.save(User.builder()
+                .email("slow-pg@test.com")
+                .password("password")
+                .name("느린PG구매자")
+                .build());
+        for (int i = 0; i < CONCURRENT; i++) {
+            orders.add(orderRepository.save(Order.builder()
+                    .user(user)
+                    .orderNumber("SLOWPG" + i + "-" + System.nanoTime())
+                    .totalAmount(10000)
+                    .recipientName("홍길동")
+                    .recipientPhone("010-1111-2222")
+                    .recipientAddress("서울시 강남구")
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        stubPg.stop(0);
+        stubExecutor.shutdownNow();
+
+        Object target = AopTestUtils.getTargetObject(paymentService);
+        ReflectionTestUtils.setField(target, "tossSecretKey", "");
+        ReflectionTestUtils.setField(target, "tossApiUrl", "https://api.tosspayments.com");
+        ReflectionTestUtils.setField(target, "recoveryAfterSeconds", 60L);
+        ReflectionTestUtils.setField(target, "recoveryGiveUpMinutes", 30L);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (Order order : orders) {
+                paymentTransactionRepository.deleteAll(paymentTransactionRepository.findByOrderIdOrderById(order.getId()));
+            }
+            orderRepository.deleteAll(orders);
+            userRepository.delete(user);
+        });
+    }
+
+    @Test
+    @DisplayName("토스 승인 - PG 5xx가 이어지면 서킷이 열려 PG를 호출하지 않고 바로 실패")
+    void confirmToss_failingUpstream_opensCircuit() throws Exception {
+        failing = true;
+        String token = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), "user");
+
+        // 5xx는 승인 여부를 알 수 없으므로 결과 확인 대기 (기본 임계값 5회)
+        for (int i = 0; i < 5; i++) {
+            confirm(token, i).andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.error").value("결제 결과를 확인하고 있습니다. 잠시 후 주문 상태를 확인해주세요."));
+        }
+        assertThat(received.get()).isEqualTo(5);
+
+        confirm(token, 5).andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("결제 승인에 실패했습니다."));
+        assertThat(received.get()).isEqualTo(5);
+        assertThat(paymentTransactionRepository.findByOrderIdOrderById(orders.get(5).getId()))
+                .extracting(PaymentTransaction::getStatus)
+                .containsExactly(PaymentTransaction.Status.failed);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) outboundHttpGuard.getStats()
+                .get("localhost:" + stubPg.getAddress().getPort());
+        assertThat(stats).containsEntry("circuit", "open").containsEntry("shortCircuited", 1L);
+    }
+
+    @Test
+    @DisplayName("결제 기록 복구 - 토스에서 승인 전이면 승인 재요청, 계속 결과를 모르면 기한 후 실패 처리")
+    void recoverPendingTransactions_retriesConfirmThenGivesUp() {
+        Object target = AopTestUtils.getTargetObject(paymentService);
+        ReflectionTestUtils.setField(target, "recoveryAfterSeconds", 0L);
+        release.countDown();
+        PaymentTransaction retried = requested(orders.get(0), "pk-retry");
+
+        paymentService.recoverPendingTransactions();
+        assertThat(paymentTransactionRepository.findById(retried.getId()).orElseThrow().getStatus())
+                .isEqualTo(PaymentTransaction.Status.succeeded);
+        assertThat(orderRepository.findById(orders.get(0).getId()).orElseThrow().getStatus())
+                .isEqualTo(Order.OrderStatus.paid);
+
+        // 재요청도 5xx — 기한 전에는 그대로, 기한이 지나면 실패로 마무리해 주문을 다시 결제할 수 있게
+        failing = true;
+        PaymentTransaction stuck = requested(orders.get(1), "pk-stuck");
+        paymentService.recoverPendingTransactions();
+        assertThat(paymentTransactionRepository.findById(stuck.getId()).orElseThrow().getStatus())
+                .isEqualTo(PaymentTransaction.Status.requested);
+
+        ReflectionTestUtils.setField(target, "recoveryGiveUpMinutes", -1L);
+        paymentService.recoverPendingTransactions();
+        assertThat(paymentTransactionRepository.findById(stuck.getId()).orElseThrow().getStatus())
+                .isEqualTo(PaymentTransaction.Status.failed);
+        assertThat(orderRepository.findById(orders.get(1).getId()).orElseThrow().getStatus())
+                .isEqualTo(Order.OrderStatus.pending);
+    }
+
+    private PaymentTransaction requested(Order order, String paymentKey) {
+        return paymentTransactionRepository.save(PaymentTransaction.builder()
+                .orderId(order.getId())
+                .type(PaymentTransaction.Type.confirm)
+                .paymentKey(paymentKey)
+                .amount(order.getTotalAmount())
+                .build());
+    }
+
+    private ResultActions confirm(String token, int index) throws Exception {
+        Order order = orders.get(index);
+        return mockMvc.perform(post("/api/payments/toss/confirm")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "orderId", order.getId(), "paymentKey", "pk-" + index, "amount", order.getTotalAmount()))));
+    }
+
+    @Test
+    @DisplayName("토스 승인 - PG 응답 대기 중에는 DB 커넥션을 잡지 않음 (풀 크기보다 많은 동시 승인)")
+    void confirmToss_slowUpstream_doesNotHoldConnections() throws Exception {
+        String token = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), "user");
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < CONCURRENT; i++) {
+                Order order = orders.get(i);
+                String body = objectMapper.writeValueAsString(Map.of(
+                        "orderId", order.getId(), "paymentKey", "pk-" + i, "amount", order.getTotalAmount()));
+                futures.add(executor.submit(() -> mockMvc.perform(post("/api/payments/toss/confirm")
+                                .header("Authorization", "Bearer " + token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                        .andReturn().getResponse().getStatus()));
+            }
+
+            // 커넥션을 잡은 채 PG를 호출하면 풀 크기(10)를 넘는 요청은 PG까지 오지 못한다
+            assertThat(arrived.await(20, TimeUnit.SECONDS)).isTrue();
+            assertThat(((HikariDataSource) dataSource).getHikariPoolMXBean().getActiveConnections()).isZero();
+            assertThat(orderRepository.count()).isPositive();
+
+            release.countDown();
+            for (Future<Integer> future : futures) {
+                assertThat(future.get(30, TimeUnit.SECONDS)).isEqualTo(200);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Order order : orders) {
+            assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(Order.OrderStatus.paid);
+            assertThat(paymentTransactionRepository.findByOrderIdOrderById(order.getId()))
+                    .extracting(PaymentTransaction::getStatus)
+                    .containsExactly(PaymentTransaction.Status.succeeded);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.gugarden.controller;
+
+import com.gugarden.entity.Order;
+import com.gugarden.entity.User;
+import com.gugarden.repository.OrderRepository;
+import com.gugarden.repository.UserRepository;
+import com.gugarden.service.PaymentWebhookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 결제사 웹훅 수신 검증. 워커 스레드가 별도 트랜잭션으로 반영하므로 테스트 트랜잭션을 쓰지 않고 직접 정리한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PaymentWebhookTest {
+
+    private static final String SECRET = "webhook-test-secret";
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private PaymentWebhookService paymentWebhookService;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        Object target = AopTestUtils.getTargetObject(paymentWebhookService);
+        ReflectionTestUtils.setField(target, "secret", SECRET);
+
+        user = userRepository.save(User.builder()
+                .email("webhook@test.com")
+                .password("password")
+                .name("웹훅구매자")
+                .build());
+        order = orderRepository.save(Order.builder()
+                .user(user)
+                .orderNumber("WEBHOOK-" + System.nanoTime())
+                .totalAmount(10000)
+                .recipientName("홍길동")
+                .recipientPhone("010-1111-2222")
+                .recipientAddress("서울시 강남구")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        Object target = AopTestUtils.getTargetObject(paymentWebhookService);
+        ReflectionTestUtils.setField(target, "secret", "");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            orderRepository.deleteById(order.getId());
+            userRepository.delete(user);
+        });
+    }
+
+    @Test
+    @DisplayName("웹훅 - 서명이 틀리면 401, 큐에 넣지 않음")
+    void webhook_invalidSignature() throws Exception {
+        String body = tossBody("DONE", 10000);
+        send("toss", body, "00" + sign(body).substring(2)).andExpect(status().isUnauthorized());
+        send("toss", body, null).andExpect(status().isUnauthorized());
+        send("unknown", body, sign(body)).andExpect(status().isNotFound());
+
+        Thread.sleep(300);
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(Order.OrderStatus.pending);
+    }
+
+    @Test
+    @DisplayName("웹훅 - 토스 결제 완료 통지는 바로 200, 워커가 주문을 결제 완료로 반영 (재전송은 무시)")
+    void webhook_tossDone_marksOrderPaid() throws Exception {
+        String body = tossBody("DONE", 10000);
+        send("toss", body, sign(body)).andExpect(status().isOk());
+        send("toss", body, sign(body)).andExpect(status().isOk());
+
+        Order paid = awaitStatus(Order.OrderStatus.paid);
+        assertThat(paid.getPaymentKey()).isEqualTo("pk-webhook");
+        assertThat(paid.getPaidAt()).isNotNull();
+
+        // 결제 취소 통지로 취소 반영
+        String cancel = tossBody("CANCELED", 10000);
+        send("toss", cancel, sign(cancel)).andExpect(status().isOk());
+        awaitStatus(Order.OrderStatus.cancelled);
+    }
+
+    @Test
+    @DisplayName("웹훅 - 반영하지 못한 통지는 중복으로 기억하지 않아 재전송 시 다시 처리")
+    void webhook_unsettledNotification_retriedOnResend() throws Exception {
+        // 결제 완료보다 먼저 도착한 취소 통지 — 아직 결제 전이라 반영되지 않음
+        String cancel = tossBody("CANCELED", 10000);
+        send("toss", cancel, sign(cancel)).andExpect(status().isOk());
+        Thread.sleep(1000);
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(Order.OrderStatus.pending);
+
+        String done = tossBody("DONE", 10000);
+        send("toss", done, sign(done)).andExpect(status().isOk());
+        awaitStatus(Order.OrderStatus.paid);
+
+        // 결제사가 같은 취소 통지를 다시 보내면 이번에는 반영
+        send("toss", cancel, sign(cancel)).andExpect(status().isOk());
+        awaitStatus(Order.OrderStatus.cancelled);
+    }
+
+    @Test
+    @DisplayName("웹훅 - 금액이 다른 결제 완료 통지는 반영하지 않음")
+    void webhook_amountMismatch_ignored() throws Exception {
+        String body = tossBody("DONE", 1);
+        send("toss", body, sign(body)).andExpect(status().isOk());
+
+        Thread.sleep(1500);
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(Order.OrderStatus.pending);
+    }
+
+    private Order awaitStatus(Order.OrderStatus expected) throws InterruptedException {
+        Order current = null;
+        for (int i = 0; i < 50; i++) {
+            current = orderRepository.findById(order.getId()).orElseThrow();
+            if (current.getStatus() == expected) {
+                return current;
+            }
+            Thread.sleep(100);
+        }
+        assertThat(current.getStatus()).isEqualTo(expected);
+        return current;
+    }
+
+    private String tossBody(String paymentStatus, int amount) {
+        return "{\"eventType\":\"PAYMENT_STATUS_CHANGED\",\"data\":{\"orderId\":\"" + order.getOrderNumber()
+                + "\",\"paymentKey\":\"pk-webhook\",\"status\":\"" + paymentStatus + "\",\"totalAmount\":" + amount + "}}";
+    }
+
+    private ResultActions send(String provider, String body, String signature) throws Exception {
+        var request = post("/api/payments/webhook/" + provider)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+        if (signature != null) {
+            request.header(PaymentWebhookService.SIGNATURE_HEADER, signature);
+        }
+        return mockMvc.perform(request);
+    }
+
+    private static String sign(String body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
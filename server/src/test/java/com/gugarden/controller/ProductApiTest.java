@@ -1,9 +1,18 @@
 package com.gugarden.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gugarden.dto.CatalogVersion;
 import com.gugarden.entity.Category;
 import com.gugarden.entity.Product;
+import com.gugarden.entity.ProductImage;
+import com.gugarden.event.ProductChangedEvent;
 import com.gugarden.repository.CategoryRepository;
+import com.gugarden.repository.ProductImageRepository;
 import com.gugarden.repository.ProductRepository;
+import com.gugarden.service.CatalogCacheService;
+import com.gugarden.service.ProductDetailCacheService;
+import com.gugarden.service.ProductSearchService;
+import com.gugarden.service.ProductSuggestService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,8 +20,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -22,8 +43,14 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class ProductApiTest {
 
     @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
     @Autowired private ProductRepository productRepository;
     @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductImageRepository productImageRepository;
+    @Autowired private CatalogCacheService catalogCacheService;
+    @Autowired private ProductDetailCacheService productDetailCacheService;
+    @Autowired private ProductSearchService productSearchService;
+    @Autowired private ProductSuggestService productSuggestService;
 
     private Category category;
     private Product product;
@@ -72,6 +99,34 @@ class ProductApiTest {
                 .andExpect(jsonPath("$.products").isArray());
     }
 
+    @Test
+    @DisplayName("추천 상품 - 최신 8개만, Last-Modified는 목록 상품의 최종 수정 시각")
+    void getFeatured_limitAndLastModified() throws Exception {
+        catalogCacheService.clear();
+        Product newest = null;
+        for (int i = 0; i < 9; i++) {
+            newest = productRepository.save(Product.builder()
+                    .category(category)
+                    .name("추천상품" + i)
+                    .slug("featured-product-" + i + "-" + System.nanoTime())
+                    .price(10000)
+                    .stock(10)
+                    .isActive(true)
+                    .isFeatured(true)
+                    .build());
+        }
+
+        MvcResult result = mockMvc.perform(get("/api/products/featured"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(8))
+                .andExpect(jsonPath("$.products[0].id").value(newest.getId()))
+                .andReturn();
+
+        long lastModified = result.getResponse().getDateHeader("Last-Modified");
+        assertThat(lastModified / 1000)
+                .isEqualTo(newest.getUpdatedAt().atZone(ZoneId.systemDefault()).toEpochSecond());
+    }
+
     @Test
     @DisplayName("상품 상세 조회 - 200")
     void getDetail_success() throws Exception {
@@ -89,4 +144,319 @@ class ProductApiTest {
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error").exists());
     }
+
+    @Test
+    @DisplayName("상품 목록 재조회 시 캐시 적중, 재고 변경 시 해당 목록 무효화")
+    void getAllProducts_cached() throws Exception {
+        catalogCacheService.clear();
+        long hits = (long) catalogCacheService.getStats().get("hits");
+        long misses = (long) catalogCacheService.getStats().get("misses");
+
+        mockMvc.perform(get("/api/products")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[?(@.id == " + product.getId() + ")]").exists());
+
+        assertThat((long) catalogCacheService.getStats().get("hits")).isEqualTo(hits + 1);
+        assertThat((long) catalogCacheService.getStats().get("misses")).isEqualTo(misses + 1);
+
+        catalogCacheService.onProductChanged(ProductChangedEvent.stockChanged(List.of(product.getId())));
+        mockMvc.perform(get("/api/products")).andExpect(status().isOk());
+
+        assertThat((long) catalogCacheService.getStats().get("misses")).isEqualTo(misses + 2);
+    }
+
+    @Test
+    @DisplayName("상품 목록 ETag 일치 시 304")
+    void getAllProducts_notModified() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        String etag = result.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/products").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+    }
+
+    @Test
+    @DisplayName("상품 목록 If-Modified-Since가 Last-Modified 이후면 304")
+    void getAllProducts_notModifiedSince() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn();
+        String lastModified = result.getResponse().getHeader("Last-Modified");
+
+        mockMvc.perform(get("/api/products").header("If-Modified-Since", lastModified))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("상품 상세 ETag 일치 시 304, 이미지 변경 시 새 ETag로 200")
+    void getDetail_notModified() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/products/" + product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        String etag = result.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/products/" + product.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        product.getImages().add(productImageRepository.save(ProductImage.builder()
+                .product(product)
+                .imageUrl("/uploads/products/etag-test.jpg")
+                .sortOrder(0)
+                .build()));
+        productDetailCacheService.onProductChanged(ProductChangedEvent.imagesChanged(product.getId()));
+
+        MvcResult changed = mockMvc.perform(get("/api/products/" + product.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.product.images.length()").value(1))
+                .andReturn();
+        assertThat(changed.getResponse().getHeader("ETag")).isNotEqualTo(etag);
+    }
+
+    @Test
+    @DisplayName("상품 상세 재조회 시 캐시 적중, 상품 변경 시 무효화")
+    void getDetail_cached() throws Exception {
+        long hits = (long) productDetailCacheService.getStats().get("hits");
+        long misses = (long) productDetailCacheService.getStats().get("misses");
+
+        mockMvc.perform(get("/api/products/" + product.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/" + product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.product.price").value(20000));
+
+        assertThat((long) productDetailCacheService.getStats().get("hits")).isEqualTo(hits + 1);
+        assertThat((long) productDetailCacheService.getStats().get("misses")).isEqualTo(misses + 1);
+
+        product.setPrice(25000);
+        productRepository.saveAndFlush(product);
+        productDetailCacheService.onProductChanged(ProductChangedEvent.saved(product));
+
+        mockMvc.perform(get("/api/products/" + product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.product.price").value(25000));
+        assertThat((long) productDetailCacheService.getStats().get("misses")).isEqualTo(misses + 2);
+    }
+
+    @Test
+    @DisplayName("TTL이 지난 목록은 버전이 같으면 다시 로드하지 않음")
+    void catalogCache_revalidate() {
+        CatalogCacheService cache = new CatalogCacheService(objectMapper, 16, 0);
+        LocalDateTime updatedAt = LocalDateTime.of(2026, 1, 1, 12, 0);
+        AtomicInteger loads = new AtomicInteger();
+        CatalogVersion[] version = { new CatalogVersion(1, 1, updatedAt) };
+
+        for (int i = 0; i < 3; i++) {
+            cache.getSnapshot("test", () -> {
+                loads.incrementAndGet();
+                return List.of(Map.<String, Object>of("id", 1, "updated_at", updatedAt));
+            }, () -> version[0]);
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat((long) cache.getStats().get("revalidations")).isEqualTo(2);
+
+        version[0] = new CatalogVersion(2, 2, updatedAt);
+        cache.getSnapshot("test", () -> {
+            loads.incrementAndGet();
+            return List.of();
+        }, () -> version[0]);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("목록 캐시 - 가득 차면 가장 오래 조회되지 않은 목록부터 내보내고, 빈 카테고리는 캐시하지 않음")
+    void catalogCache_lruAndEmptyCategories() {
+        CatalogCacheService cache = new CatalogCacheService(objectMapper, 2, 600);
+        LocalDateTime updatedAt = LocalDateTime.of(2026, 1, 1, 12, 0);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<List<Map<String, Object>>> loader = () -> {
+            loads.incrementAndGet();
+            return List.of(Map.<String, Object>of("id", 1, "updated_at", updatedAt));
+        };
+        Supplier<CatalogVersion> version = () -> new CatalogVersion(1, 1, updatedAt);
+
+        cache.getSnapshot("a", loader, version);
+        cache.getSnapshot("b", loader, version);
+        cache.getSnapshot("a", loader, version);
+        cache.getSnapshot("c", loader, version);
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat((long) cache.getStats().get("evictions")).isEqualTo(1);
+
+        // 최근에 조회한 a는 남고 b가 밀려남
+        cache.getSnapshot("a", loader, version);
+        assertThat(loads.get()).isEqualTo(3);
+        cache.getSnapshot("b", loader, version);
+        assertThat(loads.get()).isEqualTo(4);
+
+        CatalogCacheService.Snapshot first = null;
+        for (int i = 0; i < 10; i++) {
+            CatalogCacheService.Snapshot empty = cache.getSnapshot(CatalogCacheService.categoryKey("unknown-" + i),
+                    List::of, () -> new CatalogVersion(0, null, null));
+            first = first == null ? empty : first;
+            assertThat(empty).isSameAs(first);
+        }
+        assertThat(cache.getStats().get("size")).isEqualTo(2);
+        assertThat((long) cache.getStats().get("evictions")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("상품 검색 - 부분 일치/초성/설명, 상품명 일치가 우선")
+    void search_success() throws Exception {
+        Product other = productRepository.save(Product.builder()
+                .category(category)
+                .name("이끼 키트")
+                .slug("search-other-" + System.currentTimeMillis())
+                .description("공개테스트상품과 어울리는 이끼")
+                .price(5000)
+                .stock(10)
+                .isActive(true)
+                .build());
+        productSearchService.onProductChanged(ProductChangedEvent.saved(product));
+        productSearchService.onProductChanged(ProductChangedEvent.saved(other));
+
+        mockMvc.perform(get("/api/products/search").param("q", "테스트상"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(2))
+                .andExpect(jsonPath("$.products[0].id").value(product.getId()))
+                .andExpect(jsonPath("$.products[1].id").value(other.getId()));
+
+        mockMvc.perform(get("/api/products/search").param("q", "ㅇㄲ ㅋㅌ"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(1))
+                .andExpect(jsonPath("$.products[0].id").value(other.getId()));
+
+        other.setIsActive(false);
+        productRepository.save(other);
+        productSearchService.onProductChanged(ProductChangedEvent.saved(other));
+
+        mockMvc.perform(get("/api/products/search").param("q", "이끼"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(0));
+    }
+
+    @Test
+    @DisplayName("검색어 없이 검색 시 400")
+    void search_emptyQuery() throws Exception {
+        mockMvc.perform(get("/api/products/search").param("q", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    @DisplayName("자동완성 - 입력 중인 글자/초성/단어 시작 일치, 이름 변경·비활성화 반영")
+    void suggest_success() throws Exception {
+        product.setName("자동완성 테라리움");
+        productRepository.save(product);
+        productSuggestService.onProductChanged(ProductChangedEvent.saved(product));
+
+        for (String q : List.of("자동와", "ㅈㄷㅇ", "테랄", "테라리움")) {
+            mockMvc.perform(get("/api/products/suggest").param("q", q))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.suggestions[?(@.id == " + product.getId() + " && @.type == 'product')].name")
+                            .value("자동완성 테라리움"));
+        }
+
+        product.setName("수동완성");
+        productRepository.save(product);
+        productSuggestService.onProductChanged(ProductChangedEvent.saved(product));
+        mockMvc.perform(get("/api/products/suggest").param("q", "자동완성"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.suggestions[?(@.id == " + product.getId() + " && @.type == 'product')]").isEmpty());
+
+        product.setIsActive(false);
+        productRepository.save(product);
+        productSuggestService.onProductChanged(ProductChangedEvent.saved(product));
+        mockMvc.perform(get("/api/products/suggest").param("q", "수동"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.suggestions[?(@.id == " + product.getId() + " && @.type == 'product')]").isEmpty());
+    }
+
+    @Test
+    @DisplayName("gzip 허용 시 미리 압축된 상품 목록 반환")
+    void getByCategory_gzip() throws Exception {
+        product.setDescription("유리 용기 안의 작은 숲. ".repeat(50));
+        productRepository.save(product);
+
+        MvcResult result = mockMvc.perform(get("/api/products/category/" + category.getSlug())
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(json).contains("공개테스트상품");
+        }
+    }
+
+    @Test
+    @DisplayName("gzip 목록은 ETag에 -gz 접미사, If-None-Match는 두 형태 모두 304, gzip;q=0이면 압축하지 않음")
+    void getByCategory_gzipEtag() throws Exception {
+        product.setDescription("유리 용기 안의 작은 숲. ".repeat(50));
+        productRepository.save(product);
+        String url = "/api/products/category/" + category.getSlug();
+
+        String identityEtag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andReturn().getResponse().getHeader("ETag");
+        String gzipEtag = mockMvc.perform(get(url).header("Accept-Encoding", "gzip"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(gzipEtag).isEqualTo(identityEtag.substring(0, identityEtag.length() - 1) + "-gz\"");
+
+        mockMvc.perform(get(url).header("Accept-Encoding", "gzip").header("If-None-Match", identityEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", gzipEtag));
+        mockMvc.perform(get(url).header("If-None-Match", "W/" + gzipEtag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", identityEtag));
+
+        mockMvc.perform(get(url).header("Accept-Encoding", "gzip;q=0, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("ETag", identityEtag));
+        mockMvc.perform(get(url).header("Accept-Encoding", "br, *;q=0.5"))
+                .andExpect(header().string("Content-Encoding", "gzip"));
+    }
+
+    @Test
+    @DisplayName("커서 기반 카테고리 상품 조회 - limit 단위로 nextCursor 반환")
+    void getByCategory_keyset() throws Exception {
+        for (int i = 1; i <= 2; i++) {
+            productRepository.save(Product.builder()
+                    .category(category)
+                    .name("커서테스트상품" + i)
+                    .slug("cursor-product-" + i + "-" + System.currentTimeMillis())
+                    .price(10000)
+                    .build());
+        }
+
+        MvcResult first = mockMvc.perform(get("/api/products/category/" + category.getSlug()).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn();
+        String cursor = objectMapper.readTree(first.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/products/category/" + category.getSlug())
+                        .param("after", cursor)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("잘못된 커서로 조회 시 400")
+    void getAllProducts_invalidCursor() throws Exception {
+        mockMvc.perform(get("/api/products").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
 }
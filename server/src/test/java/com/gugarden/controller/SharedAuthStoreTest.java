@@ -0,0 +1,116 @@
+package com.gugarden.controller;
+
+import com.gugarden.config.ExpiryWheel;
+import com.gugarden.repository.AuthCodeRepository;
+import com.gugarden.repository.TokenRevocationRepository;
+import com.gugarden.security.DbAuthCodeStore;
+import com.gugarden.service.DbTokenBlacklistService;
+import com.gugarden.service.InMemoryTokenBlacklistService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 인증 저장소 검증. db 저장소는 같은 DB를 쓰는 서버 두 대를 인스턴스 두 개로 흉내 내고,
+ * 메모리 저장소 만료는 틱을 짧게 둔 별도 만료 휠로 확인한다.
+ */
+@SpringBootTest
+@Transactional
+class SharedAuthStoreTest {
+
+    private static final long ACCESS_TOKEN_EXPIRATION = 900_000;
+
+    @Autowired private TokenRevocationRepository tokenRevocationRepository;
+    @Autowired private AuthCodeRepository authCodeRepository;
+    @Autowired private EntityManager entityManager;
+    @Autowired private ExpiryWheel expiryWheel;
+
+    @Test
+    @DisplayName("토큰 무효화 - 다른 서버의 무효화는 주기 조회 후 반영, 이후 발급된 토큰은 통과")
+    void revocation_propagatesAcrossNodes() throws Exception {
+        DbTokenBlacklistService nodeA = new DbTokenBlacklistService(tokenRevocationRepository, expiryWheel, ACCESS_TOKEN_EXPIRATION);
+        DbTokenBlacklistService nodeB = new DbTokenBlacklistService(tokenRevocationRepository, expiryWheel, ACCESS_TOKEN_EXPIRATION);
+        long issuedBefore = System.currentTimeMillis() - 1000;
+
+        nodeA.invalidateUser(777_001);
+        assertThat(nodeA.isBlacklisted(777_001, issuedBefore)).isTrue();
+        assertThat(nodeB.isBlacklisted(777_001, issuedBefore)).isFalse();
+
+        nodeB.poll();
+        assertThat(nodeB.isBlacklisted(777_001, issuedBefore)).isTrue();
+        assertThat(nodeB.isBlacklisted(777_001, System.currentTimeMillis() + 1000)).isFalse();
+        assertThat(nodeB.isBlacklisted(777_002, issuedBefore)).isFalse();
+
+        // 같은 사용자를 다시 무효화하면 더 늦은 시각으로 갱신
+        long issuedBetween = System.currentTimeMillis();
+        Thread.sleep(5);
+        nodeB.invalidateUser(777_001);
+        entityManager.clear();
+        DbTokenBlacklistService nodeC = new DbTokenBlacklistService(tokenRevocationRepository, expiryWheel, ACCESS_TOKEN_EXPIRATION);
+        nodeC.poll();
+        assertThat(nodeC.isBlacklisted(777_001, issuedBetween)).isTrue();
+    }
+
+    @Test
+    @DisplayName("소셜 로그인 코드 - 다른 서버에서 교환 가능, 한 번만 교환")
+    void authCode_exchangeOnOtherNode_once() {
+        DbAuthCodeStore nodeA = new DbAuthCodeStore(authCodeRepository);
+        DbAuthCodeStore nodeB = new DbAuthCodeStore(authCodeRepository);
+
+        String code = nodeA.storeCode("jwt-value");
+        assertThat(nodeB.exchangeCode(code)).isEqualTo("jwt-value");
+        assertThat(nodeA.exchangeCode(code)).isNull();
+        assertThat(nodeB.exchangeCode("unknown-code")).isNull();
+    }
+
+    @Test
+    @DisplayName("만료 휠 - 단계와 관계없이 만료 시각 이후 한 틱 안에 실행")
+    void expiryWheel_firesAtDeadline() throws Exception {
+        ExpiryWheel wheel = new ExpiryWheel(10, 8); // 0단계 80ms, 1단계 640ms
+        try {
+            long start = System.currentTimeMillis();
+            Map<Long, Long> fired = new ConcurrentHashMap<>();
+            for (long delay : new long[]{30, 300, 1000}) {
+                long deadline = start + delay;
+                wheel.schedule(deadline, () -> fired.put(deadline, System.currentTimeMillis()));
+            }
+            for (int i = 0; i < 40 && fired.size() < 3; i++) {
+                Thread.sleep(50);
+            }
+
+            assertThat(fired).hasSize(3);
+            fired.forEach((deadline, at) -> assertThat(at).isBetween(deadline, deadline + 200));
+            assertThat(wheel.getStats()).containsEntry("pending", 0L).containsEntry("expired", 3L);
+        } finally {
+            wheel.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("메모리 토큰 무효화 - 액세스 토큰 유효 기간이 지나면 목록에서 제거")
+    void inMemoryBlacklist_expiresEntries() throws Exception {
+        ExpiryWheel wheel = new ExpiryWheel(10, 8);
+        try {
+            InMemoryTokenBlacklistService blacklist = new InMemoryTokenBlacklistService(wheel, 300);
+            blacklist.invalidateUser(1);
+            blacklist.invalidateUser(2);
+            assertThat(blacklist.size()).isEqualTo(2);
+
+            for (int i = 0; i < 40 && blacklist.size() > 0; i++) {
+                Thread.sleep(50);
+            }
+            assertThat(blacklist.size()).isZero();
+            assertThat(blacklist.isBlacklisted(1, 0)).isFalse();
+        } finally {
+            wheel.shutdown();
+        }
+    }
+}